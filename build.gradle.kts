@@ -8,6 +8,14 @@ group = projectGroupId
 description = projectArtifactId
 version = projectVersion
 
+// JMH benchmarks of pku-pta, in src/jmh/java
+val jmh: SourceSet by sourceSets.creating {
+    compileClasspath += sourceSets.main.get().output
+    runtimeClasspath += sourceSets.main.get().output
+}
+configurations["jmhImplementation"].extendsFrom(configurations.implementation.get())
+configurations["jmhRuntimeOnly"].extendsFrom(configurations.runtimeOnly.get())
+
 dependencies {
     // Process options
     implementation("info.picocli:picocli:4.7.3")
@@ -34,12 +42,53 @@ dependencies {
     testImplementation(platform("org.junit:junit-bom:5.10.0"))
     testImplementation("org.junit.jupiter:junit-jupiter")
     testImplementation("org.junit.platform:junit-platform-suite")
+
+    // JMH for benchmarks
+    "jmhImplementation"("org.openjdk.jmh:jmh-core:1.37")
+    "jmhAnnotationProcessor"("org.openjdk.jmh:jmh-generator-annprocess:1.37")
 }
 
 application {
     mainClass.set("pascal.taie.Main")
 }
 
+task("runBatch", type = JavaExec::class) {
+    group = "application"
+    description = "Runs pku-pta for several main classes in one world, " +
+            "e.g. --args=\"src/test/pku test.Hello test.Branch\""
+    classpath = sourceSets["main"].runtimeClasspath
+    mainClass.set("pku.BatchMain")
+}
+
+task("diffResults", type = JavaExec::class) {
+    group = "application"
+    description = "Compares two pku-pta result files in text or binary format, " +
+            "e.g. --args=\"result.txt result.bin\""
+    classpath = sourceSets["main"].runtimeClasspath
+    mainClass.set("pku.ResultReader")
+}
+
+task("generateProgram", type = JavaExec::class) {
+    group = "application"
+    description = "Generates a synthetic program with its expected pku-pta result, " +
+            "e.g. --args=\"build/synthetic methods=80000 fanOut=8\""
+    classpath = sourceSets["main"].runtimeClasspath
+    mainClass.set("pku.ProgramGenerator")
+}
+
+task("jmh", type = JavaExec::class) {
+    group = "verification"
+    description = "Runs the JMH benchmarks of pku-pta with the GC profiler, " +
+            "e.g. --args=\"-p program=synthetic-10000 solve\""
+    classpath = jmh.runtimeClasspath
+    mainClass.set("org.openjdk.jmh.Main")
+    val resultFile = rootProject.layout.buildDirectory.file("jmh-result.json")
+    // appended to --args, so the profiler and the JSON result are always on
+    argumentProviders.add(CommandLineArgumentProvider {
+        listOf("-prof", "gc", "-rf", "json", "-rff", resultFile.get().asFile.path)
+    })
+}
+
 task("fatJar", type = Jar::class) {
     group = "build"
     description = "Creates a single jar file including Tai-e and all dependencies"
@@ -0,0 +1,221 @@
+package pku;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import pascal.taie.Main;
+import pascal.taie.World;
+import pascal.taie.analysis.AnalysisManager;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.config.Configs;
+import pascal.taie.config.Plan;
+import pascal.taie.language.classes.JClass;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.classes.Subsignature;
+import pascal.taie.util.Indexer;
+import pascal.taie.util.SimpleIndexer;
+import pascal.taie.util.graph.SimpleGraph;
+
+/**
+ * Benchmarks of the phases of pku-pta: preprocessing, solving with the
+ * pfg solver, and dumping the result in the text and binary formats.
+ *
+ * Each trial builds the world of one program, either a main class in
+ * src/test/pku or synthetic-[methods] for a program of
+ * {@link ProgramGenerator}. Run with the gradle task jmh, which adds the
+ * GC profiler for allocation rates, e.g.,
+ * --args="-p program=synthetic-10000 solve".
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4G")
+public class PointerAnalysisBenchmark {
+
+    private static final String TEST_CLASS_PATH = "src/test/pku";
+
+    private static final String SYNTHETIC = "synthetic-";
+
+    private static final Subsignature MAIN = Subsignature.get("void main(java.lang.String[])");
+
+    @Param({"test.Hello", "test.Field1", "test.Invocation", "test.RecursionTest",
+            "test.CollectionsTest", "synthetic-1000", "synthetic-10000"})
+    public String program;
+
+    @Param({"ci"})
+    public String cs;
+
+    @Param({"1"})
+    public int threads;
+
+    private Path syntheticDir;
+
+    private JMethod entry;
+
+    /** Plan that runs {@link Preprocess} on all methods in parallel */
+    private Plan preprocessPlan;
+
+    /** Analysis that collects the per-method results of {@link Preprocess} */
+    private PointerAnalysis analysis;
+
+    private PreprocessResult preprocess;
+
+    /** Solver of the program, whose points-to sets {@link PtsSizes} reports */
+    private Solver solver;
+
+    private Indexer<Integer> objIndexer;
+
+    private PointerAnalysisResult result;
+
+    private Path textFile;
+
+    private Path binaryFile;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        List<String> args = new ArrayList<>(List.of("-cp", TEST_CLASS_PATH));
+        String mainClass = program;
+        if (program.startsWith(SYNTHETIC)) {
+            int methods = Integer.parseInt(program.substring(SYNTHETIC.length()));
+            syntheticDir = Files.createTempDirectory("pku-pta-synthetic");
+            mainClass = new ProgramGenerator(ProgramGenerator.Knobs.of(methods))
+                    .generate(syntheticDir);
+            args.addAll(List.of("-cp", syntheticDir.toString()));
+        }
+        args.addAll(List.of("--input-classes", mainClass, "-a", PointerAnalysis.ID));
+        Main.buildWorld(args.toArray(String[]::new));
+        JClass jclass = World.get().getClassHierarchy().getClass(mainClass);
+        entry = jclass.getDeclaredMethod(MAIN);
+        List<AnalysisConfig> configs = AnalysisConfig.parseConfigs(Configs.getAnalysisConfig());
+        preprocessPlan = new Plan(List.of(getConfig(configs, Preprocess.ID)),
+                new SimpleGraph<>(), Set.of(Plan.KEEP_ALL));
+        analysis = new PointerAnalysis(getConfig(configs, PointerAnalysis.ID));
+        preprocess = preprocess();
+        objIndexer = new SimpleIndexer<>(new TreeSet<>(preprocess.obj_ids.values()));
+        solver = solve();
+        result = new PointerAnalysisResult();
+        preprocess.test_pts.forEach((testId, var) -> {
+            TreeSet<Integer> objs = new TreeSet<>();
+            solver.getPts(var).forEach(objId -> {
+                if (objId > 0) {
+                    objs.add(objId);
+                }
+            });
+            result.put(testId, objs);
+        });
+        textFile = Files.createTempFile("pku-pta-result", ".txt");
+        binaryFile = Files.createTempFile("pku-pta-result", ".bin");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(textFile);
+        Files.deleteIfExists(binaryFile);
+        if (syntheticDir != null) {
+            Path pkg = syntheticDir.resolve(ProgramGenerator.PACKAGE);
+            try (var files = Files.list(pkg)) {
+                for (Path file : files.toList()) {
+                    Files.delete(file);
+                }
+            }
+            Files.delete(pkg);
+            Files.delete(syntheticDir.resolve(ProgramGenerator.EXPECTED_FILE));
+            Files.delete(syntheticDir);
+        }
+    }
+
+    private static AnalysisConfig getConfig(List<AnalysisConfig> configs, String id) {
+        return configs.stream()
+                .filter(config -> config.getId().equals(id))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    /**
+     * Preprocesses all methods as a pku-pta run does: runs {@link Preprocess}
+     * in parallel and collects its per-method results.
+     */
+    @Benchmark
+    public PreprocessResult preprocess() {
+        new AnalysisManager(preprocessPlan).execute();
+        return analysis.preprocess();
+    }
+
+    /**
+     * Solves the program with the pfg solver. {@link PtsSizes} is recorded
+     * outside of the timed part, from the solver of the trial setup,
+     * as the points-to sets do not depend on the run.
+     */
+    @Benchmark
+    public Solver solve(PtsSizes sizes) {
+        return solve();
+    }
+
+    private Solver solve() {
+        Solver solver = new Solver(preprocess, objIndexer, cs, 64,
+                Budget.unlimited(), threads);
+        solver.solve(List.of(entry));
+        return solver;
+    }
+
+    @Benchmark
+    public void dumpText() throws IOException {
+        ResultWriter.writeText(result, textFile);
+    }
+
+    @Benchmark
+    public void dumpBinary() throws IOException {
+        ResultWriter.writeBinary(result, binaryFile);
+    }
+
+    /**
+     * Sizes of the points-to sets of variable nodes after solving,
+     * reported along the time of {@link #solve(PtsSizes)}.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class PtsSizes {
+
+        /** Size of the largest points-to set */
+        public long maxPtsSize;
+
+        /** Sum of the sizes of all points-to sets */
+        public long totalPtsSize;
+
+        @Setup(Level.Iteration)
+        public void record(PointerAnalysisBenchmark benchmark) {
+            long max = 0;
+            long total = 0;
+            for (VarPtr ptr : benchmark.solver.getPointerFlowGraph().getVarPtrs()) {
+                int size = ptr.getPts().size();
+                max = Math.max(max, size);
+                total += size;
+            }
+            maxPtsSize = max;
+            totalPtsSize = total;
+        }
+    }
+}
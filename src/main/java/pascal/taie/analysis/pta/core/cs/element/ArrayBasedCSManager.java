@@ -0,0 +1,574 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.core.cs.element;
+
+import pascal.taie.World;
+import pascal.taie.analysis.pta.core.cs.context.Context;
+import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.language.classes.ClassNames;
+import pascal.taie.language.classes.JField;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.type.Type;
+import pascal.taie.language.type.TypeSystem;
+import pascal.taie.util.Indexer;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.Streams;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Manages data by maintaining the data and their context-sensitive
+ * counterparts in arrays indexed by the data.
+ * <p>
+ * The context-sensitive counterparts of each element are kept in a small
+ * hybrid map from contexts, which is found by direct array indexing:
+ * <ul>
+ *     <li>variables and call sites by their indexes in the IR of their
+ *     method, in tables of the method;</li>
+ *     <li>objects by {@link Obj#getIndex()}, and instance fields and array
+ *     indexes by the indexes of their base {@link CSObj}s, in growable
+ *     chunked tables.</li>
+ * </ul>
+ * Variables and call sites created by plugins, which are not in the IR
+ * of their method, are kept in maps, as in
+ * {@link MapBasedCSManager}. The indexes of the context-sensitive elements
+ * are assigned in the same way as in {@link MapBasedCSManager}.
+ */
+public class ArrayBasedCSManager implements CSManager {
+
+    private final PointerManager ptrManager = new PointerManager();
+
+    private final CSObjManager objManager = new CSObjManager();
+
+    private final CSMethodManager mtdManager = new CSMethodManager();
+
+    /**
+     * Tables of the methods whose variables, call sites,
+     * or context-sensitive methods have been created.
+     */
+    private final Map<JMethod, MethodTable> methodTables = Maps.newMap();
+
+    /**
+     * Cache of the last method table, as consecutive
+     * queries are mostly about the same method.
+     */
+    private MethodTable lastMethodTable;
+
+    private final Map<Invoke, Map<Context, CSCallSite>> unindexedCallSites = Maps.newMap();
+
+    @Override
+    public CSVar getCSVar(Context context, Var var) {
+        return ptrManager.getCSVar(context, var);
+    }
+
+    @Override
+    public StaticField getStaticField(JField field) {
+        return ptrManager.getStaticField(field);
+    }
+
+    @Override
+    public InstanceField getInstanceField(CSObj base, JField field) {
+        return ptrManager.getInstanceField(base, field);
+    }
+
+    @Override
+    public ArrayIndex getArrayIndex(CSObj array) {
+        return ptrManager.getArrayIndex(array);
+    }
+
+    @Override
+    public Collection<Var> getVars() {
+        return ptrManager.getVars();
+    }
+
+    @Override
+    public Collection<CSVar> getCSVars() {
+        return ptrManager.getCSVars();
+    }
+
+    @Override
+    public Collection<CSVar> getCSVarsOf(Var var) {
+        return ptrManager.getCSVarsOf(var);
+    }
+
+    @Override
+    public Collection<StaticField> getStaticFields() {
+        return ptrManager.getStaticFields();
+    }
+
+    @Override
+    public Collection<InstanceField> getInstanceFields() {
+        return ptrManager.getInstanceFields();
+    }
+
+    @Override
+    public Collection<ArrayIndex> getArrayIndexes() {
+        return ptrManager.getArrayIndexes();
+    }
+
+    @Override
+    public Stream<Pointer> pointers() {
+        return ptrManager.pointers();
+    }
+
+    @Override
+    public CSObj getCSObj(Context heapContext, Obj obj) {
+        return objManager.getCSObj(heapContext, obj);
+    }
+
+    @Override
+    public Collection<CSObj> getObjects() {
+        return objManager.getObjects();
+    }
+
+    @Override
+    public Collection<CSObj> getCSObjsOf(Obj obj) {
+        return objManager.getCSObjsOf(obj);
+    }
+
+    @Override
+    public Indexer<CSObj> getObjectIndexer() {
+        return objManager;
+    }
+
+    @Override
+    public CSCallSite getCSCallSite(Context context, Invoke callSite) {
+        Map<Context, CSCallSite> csCallSites = null;
+        int index = callSite.getIndex();
+        if (index >= 0) {
+            csCallSites = getMethodTable(callSite.getContainer())
+                    .callSites.get(index, callSite);
+        }
+        if (csCallSites == null) {
+            csCallSites = unindexedCallSites.computeIfAbsent(
+                    callSite, cs -> Maps.newHybridMap());
+        }
+        CSCallSite csCallSite = csCallSites.get(context);
+        if (csCallSite == null) {
+            CSMethod container = getCSMethod(context, callSite.getContainer());
+            csCallSite = new CSCallSite(callSite, context, container);
+            csCallSites.put(context, csCallSite);
+        }
+        return csCallSite;
+    }
+
+    @Override
+    public CSMethod getCSMethod(Context context, JMethod method) {
+        return mtdManager.getCSMethod(context, method);
+    }
+
+    @Override
+    public Indexer<CSMethod> getMethodIndexer() {
+        return mtdManager;
+    }
+
+    private MethodTable getMethodTable(JMethod method) {
+        MethodTable table = lastMethodTable;
+        if (table == null || table.method != method) {
+            table = methodTables.computeIfAbsent(method, MethodTable::new);
+            lastMethodTable = table;
+        }
+        return table;
+    }
+
+    /**
+     * Context-sensitive counterparts of the elements of a method.
+     */
+    private static class MethodTable {
+
+        private final JMethod method;
+
+        /**
+         * Context-sensitive variables of the variables, by index.
+         */
+        private final ElementTable<Var, CSVar> vars = new ElementTable<>();
+
+        /**
+         * Context-sensitive call sites of the call sites, by index.
+         */
+        private final ElementTable<Invoke, CSCallSite> callSites = new ElementTable<>();
+
+        private Map<Context, CSMethod> csMethods;
+
+        private MethodTable(JMethod method) {
+            this.method = method;
+        }
+    }
+
+    /**
+     * Maps the elements of a method, by their indexes in the IR,
+     * to their context-sensitive counterparts.
+     */
+    private static class ElementTable<E, CSE> {
+
+        private Object[] elements = new Object[0];
+
+        private Object[] csElements = new Object[0];
+
+        /**
+         * @return the context-sensitive counterparts of element, which is
+         * at index of the IR of its method, or {@code null} if another
+         * element has taken the index.
+         */
+        @SuppressWarnings("unchecked")
+        private Map<Context, CSE> get(int index, E element) {
+            if (index >= elements.length) {
+                int newLength = Math.max(index + 1, elements.length * 2);
+                elements = Arrays.copyOf(elements, newLength);
+                csElements = Arrays.copyOf(csElements, newLength);
+            }
+            if (elements[index] == null) {
+                elements[index] = element;
+                csElements[index] = Maps.newHybridMap();
+            } else if (elements[index] != element) {
+                // the element is not in the IR of the method,
+                // but has been given an index of the IR
+                return null;
+            }
+            return (Map<Context, CSE>) csElements[index];
+        }
+
+        /**
+         * @return the context-sensitive counterparts of element,
+         * or {@code null} if it has none.
+         */
+        @SuppressWarnings("unchecked")
+        private Map<Context, CSE> find(int index, E element) {
+            return index < elements.length && elements[index] == element
+                    ? (Map<Context, CSE>) csElements[index] : null;
+        }
+    }
+
+    /**
+     * Growable table indexed by non-negative integers, which is made of
+     * fixed-size chunks, so that growing it does not copy the elements.
+     */
+    private static class ChunkedTable<E> {
+
+        private static final int CHUNK_BITS = 12;
+
+        private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+
+        private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+        private Object[][] chunks = new Object[16][];
+
+        @SuppressWarnings("unchecked")
+        private E get(int index) {
+            int chunk = index >>> CHUNK_BITS;
+            if (chunk >= chunks.length || chunks[chunk] == null) {
+                return null;
+            }
+            return (E) chunks[chunk][index & CHUNK_MASK];
+        }
+
+        private void set(int index, E element) {
+            int chunk = index >>> CHUNK_BITS;
+            if (chunk >= chunks.length) {
+                chunks = Arrays.copyOf(chunks, Math.max(chunk + 1, chunks.length * 2));
+            }
+            if (chunks[chunk] == null) {
+                chunks[chunk] = new Object[CHUNK_SIZE];
+            }
+            chunks[chunk][index & CHUNK_MASK] = element;
+        }
+    }
+
+    private class PointerManager {
+
+        private final Map<Var, Map<Context, CSVar>> unindexedVars = Maps.newMap();
+
+        private final List<Var> vars = new ArrayList<>();
+
+        private final List<CSVar> csVars = new ArrayList<>();
+
+        private final Map<JField, StaticField> staticFields = Maps.newMap();
+
+        /**
+         * Instance fields of each base object, by the index of the object.
+         */
+        private final ChunkedTable<Map<JField, InstanceField>> fieldTable = new ChunkedTable<>();
+
+        private final List<InstanceField> instanceFields = new ArrayList<>();
+
+        /**
+         * Array index of each array object, by the index of the object.
+         */
+        private final ChunkedTable<ArrayIndex> arrayIndexTable = new ChunkedTable<>();
+
+        private final List<ArrayIndex> arrayIndexes = new ArrayList<>();
+
+        /**
+         * Counter for assigning unique indexes to Pointers.
+         */
+        private int counter = 0;
+
+        private CSVar getCSVar(Context context, Var var) {
+            Map<Context, CSVar> csVarsOfVar = null;
+            int index = var.getIndex();
+            if (index >= 0) {
+                csVarsOfVar = getMethodTable(var.getMethod()).vars.get(index, var);
+            }
+            if (csVarsOfVar == null) {
+                csVarsOfVar = unindexedVars.computeIfAbsent(var, v -> Maps.newHybridMap());
+            }
+            CSVar csVar = csVarsOfVar.get(context);
+            if (csVar == null) {
+                if (csVarsOfVar.isEmpty()) {
+                    vars.add(var);
+                }
+                csVar = new CSVar(var, context, counter++);
+                csVarsOfVar.put(context, csVar);
+                csVars.add(csVar);
+            }
+            return csVar;
+        }
+
+        private StaticField getStaticField(JField field) {
+            return staticFields.computeIfAbsent(field,
+                    f -> new StaticField(f, counter++));
+        }
+
+        private InstanceField getInstanceField(CSObj base, JField field) {
+            Map<JField, InstanceField> fields = fieldTable.get(base.getIndex());
+            if (fields == null) {
+                fields = Maps.newHybridMap();
+                fieldTable.set(base.getIndex(), fields);
+            }
+            InstanceField instField = fields.get(field);
+            if (instField == null) {
+                instField = new InstanceField(base, field, counter++);
+                fields.put(field, instField);
+                instanceFields.add(instField);
+            }
+            return instField;
+        }
+
+        private ArrayIndex getArrayIndex(CSObj array) {
+            ArrayIndex arrayIndex = arrayIndexTable.get(array.getIndex());
+            if (arrayIndex == null) {
+                arrayIndex = new ArrayIndex(array, counter++);
+                arrayIndexTable.set(array.getIndex(), arrayIndex);
+                arrayIndexes.add(arrayIndex);
+            }
+            return arrayIndex;
+        }
+
+        private Collection<Var> getVars() {
+            return Collections.unmodifiableList(vars);
+        }
+
+        private Collection<CSVar> getCSVars() {
+            return Collections.unmodifiableList(csVars);
+        }
+
+        private Collection<CSVar> getCSVarsOf(Var var) {
+            int index = var.getIndex();
+            Map<Context, CSVar> csVarsOfVar = null;
+            if (index >= 0) {
+                MethodTable table = methodTables.get(var.getMethod());
+                if (table != null) {
+                    csVarsOfVar = table.vars.find(index, var);
+                }
+            }
+            if (csVarsOfVar == null) {
+                csVarsOfVar = unindexedVars.get(var);
+            }
+            return csVarsOfVar != null
+                    ? Collections.unmodifiableCollection(csVarsOfVar.values())
+                    : Set.of();
+        }
+
+        private Collection<StaticField> getStaticFields() {
+            return Collections.unmodifiableCollection(staticFields.values());
+        }
+
+        private Collection<InstanceField> getInstanceFields() {
+            return Collections.unmodifiableList(instanceFields);
+        }
+
+        private Collection<ArrayIndex> getArrayIndexes() {
+            return Collections.unmodifiableList(arrayIndexes);
+        }
+
+        private Stream<Pointer> pointers() {
+            return Streams.concat(
+                    getCSVars().stream(),
+                    getInstanceFields().stream(),
+                    getArrayIndexes().stream(),
+                    getStaticFields().stream());
+        }
+    }
+
+    private static class CSObjManager implements Indexer<CSObj> {
+
+        /**
+         * Context-sensitive objects of each object, by the index of the
+         * object. Objects without index, e.g., the ones created by other
+         * heap models, are kept in {@link #unindexedObjs}.
+         */
+        private final ChunkedTable<Map<Context, CSObj>> objTable = new ChunkedTable<>();
+
+        private final Map<Obj, Map<Context, CSObj>> unindexedObjs = Maps.newMap();
+
+        private final List<CSObj> csObjList = new ArrayList<>();
+
+        private final TypeSystem typeSystem = World.get().getTypeSystem();
+
+        private final Type throwable = typeSystem.getClassType(ClassNames.THROWABLE);
+
+        private final Type string = typeSystem.getClassType(ClassNames.STRING);
+
+        /**
+         * Counter for assign unique indexes to throwable objects.
+         */
+        private int throwableCounter = 0;
+
+        /**
+         * Number of indexes reserved for throwable objects.
+         */
+        private static final int THROWABLE_BUDGET = 2048;
+
+        /**
+         * Counter for assign unique indexes to string objects.
+         */
+        private int stringCounter = THROWABLE_BUDGET;
+
+        /**
+         * Number of indexes reserved for string objects.
+         */
+        private static final int STRING_BUDGET = 4096;
+
+        /**
+         * Counter for assigning unique indexes to other CSObjs.
+         */
+        private int counter = THROWABLE_BUDGET + STRING_BUDGET;
+
+        /**
+         * Maps index to CSObj. There are empty slots
+         * for the unused indexes of the budgets.
+         */
+        private final ChunkedTable<CSObj> objs = new ChunkedTable<>();
+
+        CSObj getCSObj(Context heapContext, Obj obj) {
+            Map<Context, CSObj> csObjs;
+            int objIndex = obj.getIndex();
+            if (objIndex >= 0) {
+                csObjs = objTable.get(objIndex);
+                if (csObjs == null) {
+                    csObjs = Maps.newHybridMap();
+                    objTable.set(objIndex, csObjs);
+                }
+            } else {
+                csObjs = unindexedObjs.computeIfAbsent(obj, o -> Maps.newHybridMap());
+            }
+            CSObj csObj = csObjs.get(heapContext);
+            if (csObj == null) {
+                int index = getCSObjIndex(obj);
+                csObj = new CSObj(obj, heapContext, index);
+                objs.set(index, csObj);
+                csObjs.put(heapContext, csObj);
+                csObjList.add(csObj);
+            }
+            return csObj;
+        }
+
+        private int getCSObjIndex(Obj obj) {
+            if (typeSystem.isSubtype(throwable, obj.getType()) &&
+                    throwableCounter < THROWABLE_BUDGET) {
+                return throwableCounter++;
+            } else if (obj.getType().equals(string) &&
+                    stringCounter < THROWABLE_BUDGET + STRING_BUDGET) {
+                return stringCounter++;
+            } else {
+                return counter++;
+            }
+        }
+
+        Collection<CSObj> getObjects() {
+            return Collections.unmodifiableList(csObjList);
+        }
+
+        Collection<CSObj> getCSObjsOf(Obj obj) {
+            int objIndex = obj.getIndex();
+            Map<Context, CSObj> csObjs = objIndex >= 0
+                    ? objTable.get(objIndex) : unindexedObjs.get(obj);
+            return csObjs != null
+                    ? Collections.unmodifiableCollection(csObjs.values())
+                    : Set.of();
+        }
+
+        @Override
+        public int getIndex(CSObj o) {
+            return o.getIndex();
+        }
+
+        @Override
+        public CSObj getObject(int index) {
+            return objs.get(index);
+        }
+    }
+
+    private class CSMethodManager implements Indexer<CSMethod> {
+
+        /**
+         * Counter for assigning unique indexes to CSMethods.
+         */
+        private int counter = 0;
+
+        private final List<CSMethod> methods = new ArrayList<>(65536);
+
+        private CSMethod getCSMethod(Context context, JMethod method) {
+            MethodTable table = getMethodTable(method);
+            if (table.csMethods == null) {
+                table.csMethods = Maps.newHybridMap();
+            }
+            CSMethod csMethod = table.csMethods.get(context);
+            if (csMethod == null) {
+                csMethod = new CSMethod(method, context, counter++);
+                table.csMethods.put(context, csMethod);
+                methods.add(csMethod);
+            }
+            return csMethod;
+        }
+
+        @Override
+        public int getIndex(CSMethod m) {
+            return m.getIndex();
+        }
+
+        @Override
+        public CSMethod getObject(int index) {
+            return methods.get(index);
+        }
+    }
+}
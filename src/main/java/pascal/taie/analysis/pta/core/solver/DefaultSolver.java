@@ -50,6 +50,7 @@ import pascal.taie.analysis.pta.core.heap.Obj;
 import pascal.taie.analysis.pta.plugin.Plugin;
 import pascal.taie.analysis.pta.pts.PointsToSet;
 import pascal.taie.analysis.pta.pts.PointsToSetFactory;
+import pascal.taie.analysis.pta.pts.PointsToSetFilter;
 import pascal.taie.config.AnalysisOptions;
 import pascal.taie.ir.IR;
 import pascal.taie.ir.exp.CastExp;
@@ -83,6 +84,7 @@ import pascal.taie.language.type.TypeSystem;
 import pascal.taie.util.collection.Maps;
 import pascal.taie.util.collection.Sets;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
@@ -134,6 +136,16 @@ public class DefaultSolver implements Solver {
      */
     private final long timeLimit;
 
+    /**
+     * Name of the scheduling policy of the work list.
+     */
+    private final String workListPolicy;
+
+    /**
+     * Whether merges the cycles of the pointer flow graph.
+     */
+    private final boolean cycleElimination;
+
     private TimeLimiter timeLimiter;
 
     /**
@@ -143,11 +155,27 @@ public class DefaultSolver implements Solver {
 
     private Plugin plugin;
 
-    private WorkList workList;
+    /**
+     * Compiled filters of the pointers that have filters.
+     */
+    private Map<Pointer, PointsToSetFilter> pointerFilters;
+
+    /**
+     * Work list of the solver, shared with {@link ParallelSolver}.
+     */
+    WorkList workList;
 
     private CSCallGraph callGraph;
 
-    private PointerFlowGraph pointerFlowGraph;
+    /**
+     * Pointer flow graph of the solver, shared with {@link ParallelSolver}.
+     */
+    PointerFlowGraph pointerFlowGraph;
+
+    /**
+     * Number of pointer entries processed so far, to compare work-list policies.
+     */
+    long processedPointerEntries;
 
     private Set<JMethod> reachableMethods;
 
@@ -178,6 +206,8 @@ public class DefaultSolver implements Solver {
         propTypes = new PropagateTypes((List<String>) options.get("propagate-types"));
         onlyApp = options.getBoolean("only-app");
         timeLimit = options.getInt("time-limit");
+        workListPolicy = options.getString("work-list-policy");
+        cycleElimination = options.getBoolean("cycle-elimination");
     }
 
     @Override
@@ -252,7 +282,9 @@ public class DefaultSolver implements Solver {
     private void initialize() {
         callGraph = new CSCallGraph(csManager);
         pointerFlowGraph = new PointerFlowGraph(csManager);
-        workList = new WorkList();
+        workList = new WorkList(WorkListPolicy.of(workListPolicy, pointerFlowGraph));
+        processedPointerEntries = 0;
+        pointerFilters = Maps.newMap();
         reachableMethods = Sets.newSet();
         initializedClasses = Sets.newSet();
         ignoredMethods = Sets.newSet();
@@ -299,34 +331,54 @@ public class DefaultSolver implements Solver {
         }
     }
 
+    /**
+     * @return {@code true} if the analysis has reached time limit.
+     */
+    protected boolean isTimeout() {
+        return isTimeout;
+    }
+
     /**
      * Processes work list entries until the work list is empty.
      */
-    private void analyze() {
+    protected void analyze() {
         while (!workList.isEmpty() && !isTimeout) {
             WorkList.Entry entry = workList.pollEntry();
             if (entry instanceof WorkList.PointerEntry pEntry) {
-                Pointer p = pEntry.pointer();
+                ++processedPointerEntries;
+                Pointer p = pointerFlowGraph.getRepresentative(pEntry.pointer());
                 PointsToSet pts = pEntry.pointsToSet();
+                // the members receive diff, even if propagate() merges
+                // p with other pointers, which are processed there
+                List<Pointer> members = pointerFlowGraph.getMembers(p);
                 PointsToSet diff = propagate(p, pts);
-                if (!diff.isEmpty() && p instanceof CSVar v) {
-                    processInstanceStore(v, diff);
-                    processInstanceLoad(v, diff);
-                    processArrayStore(v, diff);
-                    processArrayLoad(v, diff);
-                    processCall(v, diff);
-                    plugin.onNewPointsToSet(v, diff);
+                if (!diff.isEmpty()) {
+                    for (Pointer member : members) {
+                        if (member instanceof CSVar v) {
+                            processNewPointsToSet(v, diff);
+                        }
+                    }
                 }
             } else if (entry instanceof WorkList.CallEdgeEntry eEntry) {
                 processCallEdge(eEntry.edge());
             }
         }
+        finish();
+    }
+
+    /**
+     * Finishes the analysis after the work list is empty
+     * or the analysis has reached time limit.
+     */
+    protected void finish() {
         if (!workList.isEmpty() && isTimeout) {
             logger.warn("Pointer analysis stops early as it reaches time limit ({} seconds)," +
                     " and the result may be unsound!", timeLimit);
         } else if (timeLimiter != null) { // finish normally but time limiter is still running
             timeLimiter.stop();
         }
+        logger.info("Processed {} pointer entries ({} work list)",
+                processedPointerEntries, workListPolicy);
         plugin.onFinish();
     }
 
@@ -336,24 +388,136 @@ public class DefaultSolver implements Solver {
      */
     private PointsToSet propagate(Pointer pointer, PointsToSet pointsToSet) {
         logger.trace("Propagate {} to {}", pointsToSet, pointer);
-        Set<Predicate<CSObj>> filters = pointer.getFilters();
-        if (!filters.isEmpty()) {
-            // apply filters (of the pointer) on pointsToSet
-            pointsToSet = pointsToSet.objects()
-                    .filter(o -> filters.stream().allMatch(f -> f.test(o)))
-                    .collect(ptsFactory::make, PointsToSet::addObject, PointsToSet::addAll);
-        }
+        pointsToSet = applyFilters(pointer, pointsToSet);
         PointsToSet diff = getPointsToSetOf(pointer).addAllDiff(pointsToSet);
         if (!diff.isEmpty()) {
-            pointerFlowGraph.getOutEdgesOf(pointer).forEach(edge -> {
-                Pointer target = edge.target();
-                edge.getTransfers().forEach(transfer ->
-                        addPointsTo(target, transfer.apply(edge, diff)));
-            });
+            if (cycleElimination) {
+                List<PointerFlowEdge> candidates = propagateToSuccessors(pointer, diff);
+                for (PointerFlowEdge edge : candidates) {
+                    List<Pointer> cycle = pointerFlowGraph.findCycle(edge);
+                    if (!cycle.isEmpty()) {
+                        mergeCycle(cycle);
+                    }
+                }
+            } else {
+                pointerFlowGraph.getOutEdgesOf(pointer).forEach(edge -> {
+                    Pointer target = edge.target();
+                    edge.getTransfers().forEach(transfer ->
+                            addPointsTo(target, transfer.apply(edge, diff)));
+                });
+            }
         }
         return diff;
     }
 
+    /**
+     * Propagates diff along the out edges of the pointers merged into
+     * representative, except the edges inside the merged cycle.
+     *
+     * @return the unchecked mergeable edges whose targets have the same
+     * points-to set as representative, i.e., the propagation along them
+     * does not change their targets. Such edges may be on cycles.
+     */
+    private List<PointerFlowEdge> propagateToSuccessors(
+            Pointer representative, PointsToSet diff) {
+        List<PointerFlowEdge> candidates = List.of();
+        PointsToSet pts = getPointsToSetOf(representative);
+        for (Pointer member : pointerFlowGraph.getMembers(representative)) {
+            for (PointerFlowEdge edge : pointerFlowGraph.getOutEdgesOf(member)) {
+                Pointer target = pointerFlowGraph.getRepresentative(edge.target());
+                boolean mergeable = PointerFlowGraph.isMergeable(edge);
+                if (mergeable && target == pointerFlowGraph.getRepresentative(representative)) {
+                    continue;
+                }
+                edge.getTransfers().forEach(transfer ->
+                        addPointsTo(edge.target(), transfer.apply(edge, diff)));
+                if (mergeable && !pointerFlowGraph.isChecked(edge)) {
+                    PointsToSet targetPts = target.getPointsToSet();
+                    if (targetPts != null && targetPts.size() == pts.size()
+                            && targetPts.objects().allMatch(pts::contains)) {
+                        if (candidates.isEmpty()) {
+                            candidates = new ArrayList<>();
+                        }
+                        candidates.add(edge);
+                    }
+                }
+            }
+        }
+        return candidates;
+    }
+
+    /**
+     * Merges the pointers of a cycle, which is found by
+     * {@link PointerFlowGraph#findCycle(PointerFlowEdge)}. The objects
+     * that a pointer of the cycle misses are propagated to it, i.e.,
+     * to its statements, plugins and successors out of the cycle.
+     */
+    private void mergeCycle(List<Pointer> cycle) {
+        PointsToSet union = makePointsToSet();
+        cycle.forEach(p -> union.addAll(getPointsToSetOf(p)));
+        Map<List<Pointer>, PointsToSet> missing = Maps.newLinkedHashMap();
+        for (Pointer pointer : cycle) {
+            PointsToSet diff = getPointsToSetOf(pointer).addAllDiff(union);
+            if (!diff.isEmpty()) {
+                missing.put(pointerFlowGraph.getMembers(pointer), diff);
+            }
+        }
+        Pointer representative = pointerFlowGraph.mergeCycle(cycle);
+        logger.trace("Merge {} pointers into {}",
+                pointerFlowGraph.getMembers(representative).size(), representative);
+        missing.forEach((members, diff) -> {
+            for (Pointer member : members) {
+                if (member instanceof CSVar v) {
+                    processNewPointsToSet(v, diff);
+                }
+                for (PointerFlowEdge edge : pointerFlowGraph.getOutEdgesOf(member)) {
+                    if (!PointerFlowGraph.isMergeable(edge) ||
+                            pointerFlowGraph.getRepresentative(edge.target()) !=
+                                    pointerFlowGraph.getRepresentative(member)) {
+                        edge.getTransfers().forEach(transfer ->
+                                addPointsTo(edge.target(), transfer.apply(edge, diff)));
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Applies the filters of pointer on pointsToSet.
+     *
+     * @return the objects of pointsToSet that pass all filters of pointer.
+     */
+    protected PointsToSet applyFilters(Pointer pointer, PointsToSet pointsToSet) {
+        Set<Predicate<CSObj>> filters = pointer.getFilters();
+        if (filters.isEmpty()) {
+            return pointsToSet;
+        }
+        PointsToSetFilter filter = pointerFilters.get(pointer);
+        if (filter != null) {
+            return filter.apply(pointsToSet);
+        }
+        // the filters were not added by addPointerFilter()
+        return pointsToSet.objects()
+                .filter(o -> filters.stream().allMatch(f -> f.test(o)))
+                .collect(ptsFactory::make, PointsToSet::addObject, PointsToSet::addAll);
+    }
+
+    /**
+     * Processes the statements and plugins that depend on a variable
+     * when its points-to set changes.
+     *
+     * @param var  the variable
+     * @param diff set of new discovered objects pointed by the variable.
+     */
+    protected void processNewPointsToSet(CSVar var, PointsToSet diff) {
+        processInstanceStore(var, diff);
+        processInstanceLoad(var, diff);
+        processArrayStore(var, diff);
+        processArrayLoad(var, diff);
+        processCall(var, diff);
+        plugin.onNewPointsToSet(var, diff);
+    }
+
     /**
      * Processes instance stores when points-to set of the base variable changes.
      *
@@ -486,7 +650,7 @@ public class DefaultSolver implements Solver {
         }
     }
 
-    private void processCallEdge(Edge<CSCallSite, CSMethod> edge) {
+    protected void processCallEdge(Edge<CSCallSite, CSMethod> edge) {
         if (callGraph.addEdge(edge)) {
             // process new call edge
             CSMethod csCallee = edge.getCallee();
@@ -731,7 +895,7 @@ public class DefaultSolver implements Solver {
 
     @Override
     public void addPointsTo(Pointer pointer, PointsToSet pts) {
-        workList.addEntry(pointer, pts);
+        workList.addEntry(pointerFlowGraph.getRepresentative(pointer), pts);
     }
 
     @Override
@@ -763,7 +927,12 @@ public class DefaultSolver implements Solver {
 
     @Override
     public void addPointerFilter(Pointer pointer, Predicate<CSObj> filter) {
+        // a pointer with filters may not share its points-to set
+        pointerFlowGraph.splitCycle(pointer);
         pointer.addFilter(filter);
+        List<Predicate<CSObj>> filters = List.copyOf(pointer.getFilters());
+        pointerFilters.put(pointer, new PointsToSetFilter(csManager.getObjectIndexer(),
+                o -> filters.stream().allMatch(f -> f.test(o))));
     }
 
     @Override
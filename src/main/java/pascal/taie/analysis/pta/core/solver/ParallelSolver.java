@@ -0,0 +1,179 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.core.solver;
+
+import pascal.taie.analysis.pta.core.cs.element.CSManager;
+import pascal.taie.analysis.pta.core.cs.element.CSVar;
+import pascal.taie.analysis.pta.core.cs.element.Pointer;
+import pascal.taie.analysis.pta.core.cs.selector.ContextSelector;
+import pascal.taie.analysis.pta.core.heap.HeapModel;
+import pascal.taie.analysis.pta.pts.PointsToSet;
+import pascal.taie.config.AnalysisOptions;
+
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Solver that propagates points-to sets on multiple threads.
+ * <p>
+ * The work list is processed in rounds. Each round first processes the
+ * pending call edges, then propagates the pending points-to sets through
+ * the pointer flow graph in parallel, level by level, until no points-to
+ * set changes, and finally processes the variables with new objects,
+ * i.e., their statements and the callbacks of plugins.
+ * <p>
+ * In each level, the points-to set of a pointer is only updated by one
+ * thread, and the pointer flow graph, the {@link CSManager} and plugins
+ * are only modified on the solver thread between the levels, so none of
+ * them needs locking. For the same reason, only {@link Identity} and
+ * {@link TypeFilter} transfers are applied in parallel; other transfers
+ * may have side effects, e.g., the ones of taint analysis create taint
+ * objects, and are applied on the solver thread after the propagation.
+ * As pointer analysis is monotone, the result is the same as the one of
+ * {@link DefaultSolver}. As each round drains the whole work list, the
+ * work-list policy and cycle elimination do not affect this solver.
+ */
+public class ParallelSolver extends DefaultSolver {
+
+    /**
+     * Number of threads that propagate points-to sets.
+     */
+    private final int threads;
+
+    public ParallelSolver(AnalysisOptions options, HeapModel heapModel,
+                          ContextSelector contextSelector, CSManager csManager) {
+        super(options, heapModel, contextSelector, csManager);
+        threads = options.getInt("solver-threads");
+    }
+
+    /**
+     * Processes work list entries in rounds until the work list is empty.
+     */
+    @Override
+    protected void analyze() {
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            while (!workList.isEmpty() && !isTimeout()) {
+                while (workList.hasCallEdges()) {
+                    processCallEdge(((WorkList.CallEdgeEntry) workList.pollEntry()).edge());
+                }
+                Map<Pointer, PointsToSet> newPointsToSets = new ConcurrentHashMap<>();
+                Map<PointerFlowEdge, PointsToSet> sequentialTransfers = new ConcurrentHashMap<>();
+                Map<Pointer, PointsToSet> level = workList.pollPointerEntries();
+                while (!level.isEmpty() && !isTimeout()) {
+                    processedPointerEntries += level.size();
+                    Map<Pointer, PointsToSet> current = level;
+                    level = pool.submit(() -> propagateLevel(
+                            current, newPointsToSets, sequentialTransfers)).join();
+                }
+                // keep the unfinished level in the work list,
+                // so that finish() reports the early stop
+                level.forEach(workList::addEntry);
+                newPointsToSets.entrySet()
+                        .stream()
+                        .sorted(Comparator.comparingInt(e -> e.getKey().getIndex()))
+                        .forEach(e -> {
+                            if (e.getKey() instanceof CSVar v) {
+                                processNewPointsToSet(v, e.getValue());
+                            }
+                        });
+                sequentialTransfers.entrySet()
+                        .stream()
+                        .sorted(Comparator.comparingInt(
+                                (Map.Entry<PointerFlowEdge, PointsToSet> e) ->
+                                        e.getKey().source().getIndex())
+                                .thenComparingInt(e -> e.getKey().target().getIndex()))
+                        .forEach(e -> applySequentialTransfers(e.getKey(), e.getValue()));
+            }
+        } finally {
+            pool.shutdown();
+        }
+        finish();
+    }
+
+    /**
+     * Propagates the points-to sets of one level to their pointers,
+     * and collects the objects new to each pointer into newPointsToSets.
+     *
+     * @return the next level, i.e., the new objects of the successors
+     * of the pointers in this level.
+     */
+    private Map<Pointer, PointsToSet> propagateLevel(
+            Map<Pointer, PointsToSet> level,
+            Map<Pointer, PointsToSet> newPointsToSets,
+            Map<PointerFlowEdge, PointsToSet> sequentialTransfers) {
+        Map<Pointer, PointsToSet> nextLevel = new ConcurrentHashMap<>();
+        level.entrySet().parallelStream().forEach(e -> {
+            // each pointer occurs once per level, thus
+            // no other thread updates its points-to set
+            Pointer pointer = e.getKey();
+            PointsToSet pts = applyFilters(pointer, e.getValue());
+            PointsToSet diff = getPointsToSetOf(pointer).addAllDiff(pts);
+            if (diff.isEmpty()) {
+                return;
+            }
+            merge(newPointsToSets, pointer, diff);
+            for (PointerFlowEdge edge : pointerFlowGraph.getOutEdgesOf(pointer)) {
+                for (Transfer transfer : edge.getTransfers()) {
+                    if (transfer instanceof Identity || transfer instanceof TypeFilter) {
+                        PointsToSet targetSet = transfer.apply(edge, diff);
+                        if (!targetSet.isEmpty()) {
+                            merge(nextLevel, edge.target(), targetSet);
+                        }
+                    } else {
+                        merge(sequentialTransfers, edge, diff);
+                    }
+                }
+            }
+        });
+        return nextLevel;
+    }
+
+    /**
+     * Adds pts to the points-to set of key in map. The points-to sets
+     * in map are never modified, as they may be shared with other maps.
+     */
+    private static <K> void merge(Map<K, PointsToSet> map, K key, PointsToSet pts) {
+        map.merge(key, pts, (pts1, pts2) -> {
+            PointsToSet union = pts1.copy();
+            union.addAll(pts2);
+            return union;
+        });
+    }
+
+    /**
+     * Applies the transfers of edge that are not applied in parallel.
+     */
+    private void applySequentialTransfers(PointerFlowEdge edge, PointsToSet diff) {
+        for (Transfer transfer : edge.getTransfers()) {
+            if (!(transfer instanceof Identity || transfer instanceof TypeFilter)) {
+                PointsToSet targetSet = transfer.apply(edge, diff);
+                if (!targetSet.isEmpty()) {
+                    addPointsTo(edge.target(), targetSet);
+                }
+            }
+        }
+    }
+}
@@ -25,21 +25,55 @@ package pascal.taie.analysis.pta.core.solver;
 import pascal.taie.analysis.graph.flowgraph.FlowKind;
 import pascal.taie.analysis.pta.core.cs.element.CSManager;
 import pascal.taie.analysis.pta.core.cs.element.Pointer;
+import pascal.taie.analysis.pta.pts.PointsToSet;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.Sets;
 import pascal.taie.util.collection.Views;
 import pascal.taie.util.graph.Edge;
 import pascal.taie.util.graph.Graph;
+import pascal.taie.util.graph.SCC;
+import pascal.taie.util.graph.SimpleGraph;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 /**
  * Represents pointer flow graph in context-sensitive pointer analysis.
+ * <p>
+ * The pointers on a cycle of plain copy edges, i.e., edges that only have
+ * {@link Identity} transfers, between pointers without filters always have
+ * the same points-to set. Such cycles can be merged into a representative
+ * pointer, whose points-to set is shared by all pointers on the cycle, so
+ * that the objects on the cycle are propagated once, see
+ * {@link #findCycle(PointerFlowEdge)}. Merging does not change the edges of
+ * the graph, thus the merged pointers can be split again.
  */
 public class PointerFlowGraph implements Graph<Pointer> {
 
     private final CSManager csManager;
 
+    /**
+     * Maps each merged pointer to its representative. Pointers
+     * absent in this map are representatives of themselves.
+     */
+    private final Map<Pointer, Pointer> representatives = Maps.newMap();
+
+    /**
+     * Pointers merged into each representative, including itself.
+     */
+    private final Map<Pointer, List<Pointer>> members = Maps.newMap();
+
+    /**
+     * Edges already checked for cycles.
+     */
+    private final Set<PointerFlowEdge> checkedEdges = Sets.newSet();
+
     PointerFlowGraph(CSManager csManager) {
         this.csManager = csManager;
     }
@@ -53,6 +87,133 @@ public class PointerFlowGraph implements Graph<Pointer> {
         return source.getOrAddEdge(kind, source, target);
     }
 
+    /**
+     * @return the representative of the cycle that pointer has been
+     * merged into, or pointer itself if it has not been merged.
+     */
+    public Pointer getRepresentative(Pointer pointer) {
+        return representatives.isEmpty() ? pointer
+                : representatives.getOrDefault(pointer, pointer);
+    }
+
+    /**
+     * @return the pointers merged into representative, including itself.
+     * The returned list is not changed by later merges.
+     */
+    public List<Pointer> getMembers(Pointer representative) {
+        List<Pointer> result = members.get(representative);
+        return result != null ? result : List.of(representative);
+    }
+
+    /**
+     * @return {@code true} if the two ends of edge can be merged when
+     * edge is on a cycle.
+     */
+    static boolean isMergeable(PointerFlowEdge edge) {
+        return edge.getTransfers().stream().allMatch(t -> t == Identity.get())
+                && edge.source().getFilters().isEmpty()
+                && edge.target().getFilters().isEmpty();
+    }
+
+    /**
+     * @return {@code true} if edge has been checked for cycles.
+     */
+    boolean isChecked(PointerFlowEdge edge) {
+        return checkedEdges.contains(edge);
+    }
+
+    /**
+     * Finds the cycle through a mergeable edge, and marks the edge as
+     * checked. Each edge is checked once, as in lazy cycle detection.
+     *
+     * @return the representatives of the strongly connected component
+     * that contains edge in the graph of mergeable edges, or an empty
+     * list if edge is not on a cycle.
+     */
+    List<Pointer> findCycle(PointerFlowEdge edge) {
+        checkedEdges.add(edge);
+        Pointer source = getRepresentative(edge.source());
+        Pointer target = getRepresentative(edge.target());
+        if (source == target) {
+            return List.of();
+        }
+        // build the graph of representatives reachable from target
+        SimpleGraph<Pointer> graph = new SimpleGraph<>();
+        graph.addEdge(source, target);
+        Set<Pointer> visited = Sets.newSet();
+        Deque<Pointer> stack = new ArrayDeque<>();
+        visited.add(target);
+        stack.push(target);
+        while (!stack.isEmpty()) {
+            Pointer pointer = stack.pop();
+            for (Pointer member : getMembers(pointer)) {
+                for (PointerFlowEdge out : member.getOutEdges()) {
+                    Pointer succ = getRepresentative(out.target());
+                    if (succ != pointer && isMergeable(out)) {
+                        graph.addEdge(pointer, succ);
+                        if (visited.add(succ)) {
+                            stack.push(succ);
+                        }
+                    }
+                }
+            }
+        }
+        if (!visited.contains(source)) {
+            return List.of();
+        }
+        return new SCC<>(graph).getTrueComponents()
+                .stream()
+                .filter(component -> component.contains(source))
+                .findFirst()
+                .orElse(List.of());
+    }
+
+    /**
+     * Merges the representatives of a cycle, which must have equal
+     * points-to sets, into one of them.
+     *
+     * @return the representative of the merged cycle.
+     */
+    Pointer mergeCycle(List<Pointer> cycle) {
+        Pointer rep = cycle.get(0);
+        for (Pointer pointer : cycle) {
+            if (getMembers(pointer).size() > getMembers(rep).size()) {
+                rep = pointer;
+            }
+        }
+        PointsToSet pts = rep.getPointsToSet();
+        List<Pointer> repMembers = new ArrayList<>();
+        for (Pointer pointer : cycle) {
+            for (Pointer member : getMembers(pointer)) {
+                repMembers.add(member);
+                member.setPointsToSet(pts);
+                if (member != rep) {
+                    representatives.put(member, rep);
+                }
+            }
+            members.remove(pointer);
+        }
+        members.put(rep, repMembers);
+        return rep;
+    }
+
+    /**
+     * Splits the cycle that pointer has been merged into, if any,
+     * giving each of its pointers a copy of the shared points-to set.
+     */
+    void splitCycle(Pointer pointer) {
+        Pointer rep = getRepresentative(pointer);
+        List<Pointer> repMembers = members.remove(rep);
+        if (repMembers != null) {
+            for (Pointer member : repMembers) {
+                if (member != rep) {
+                    representatives.remove(member);
+                    member.setPointsToSet(rep.getPointsToSet().copy());
+                }
+            }
+        }
+    }
+
     @Override
     public Set<? extends Edge<Pointer>> getInEdgesOf(Pointer node) {
         throw new UnsupportedOperationException();
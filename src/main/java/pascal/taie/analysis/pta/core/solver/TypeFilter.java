@@ -23,16 +23,16 @@
 package pascal.taie.analysis.pta.core.solver;
 
 import pascal.taie.analysis.pta.pts.PointsToSet;
+import pascal.taie.analysis.pta.pts.PointsToSetFilter;
 import pascal.taie.language.type.NullType;
 import pascal.taie.language.type.ReferenceType;
 import pascal.taie.language.type.Type;
 import pascal.taie.language.type.TypeSystem;
 
-import java.util.function.Supplier;
-
 /**
  * Transfer function that filters out the objects whose types are NOT
- * subtypes of specific type.
+ * subtypes of specific type. The type of each object is checked once,
+ * see {@link PointsToSetFilter}.
  */
 public class TypeFilter implements Transfer {
 
@@ -43,21 +43,18 @@ public class TypeFilter implements Transfer {
 
     private final TypeSystem typeSystem;
 
-    private final Supplier<PointsToSet> ptsFactory;
+    private final PointsToSetFilter filter;
 
     public TypeFilter(Type type, Solver solver) {
         this.type = type;
         this.typeSystem = solver.getTypeSystem();
-        this.ptsFactory = solver::makePointsToSet;
+        this.filter = new PointsToSetFilter(solver.getCSManager().getObjectIndexer(),
+                o -> isAssignable(o.getObject().getType(), type));
     }
 
     @Override
     public PointsToSet apply(PointerFlowEdge edge, PointsToSet input) {
-        PointsToSet result = ptsFactory.get();
-        input.objects()
-                .filter(o -> isAssignable(o.getObject().getType(), type))
-                .forEach(result::addObject);
-        return result;
+        return filter.apply(input);
     }
 
     private boolean isAssignable(Type from, Type to) {
@@ -35,26 +35,40 @@ import java.util.NoSuchElementException;
 import java.util.Queue;
 
 /**
- * Represents work list in pointer analysis.
+ * Represents work list in pointer analysis. The order of pointer entries
+ * is decided by a {@link WorkListPolicy}.
  */
 final class WorkList {
 
     /**
      * Pointer entries to be processed.
      */
-    private final Map<Pointer, PointsToSet> pointerEntries = Maps.newLinkedHashMap();
+    private Map<Pointer, PointsToSet> pointerEntries = Maps.newMap();
+
+    /**
+     * Decides the order of pointer entries.
+     */
+    private final WorkListPolicy policy;
 
     /**
      * Call edges to be processed.
      */
     private final Queue<Edge<CSCallSite, CSMethod>> callEdges = new ArrayDeque<>();
 
+    WorkList(WorkListPolicy policy) {
+        this.policy = policy;
+    }
+
     void addEntry(Pointer pointer, PointsToSet pointsToSet) {
         PointsToSet set = pointerEntries.get(pointer);
         if (set != null) {
-            set.addAll(pointsToSet);
+            if (set.addAll(pointsToSet)) {
+                policy.offer(pointer, set, false);
+            }
         } else {
-            pointerEntries.put(pointer, pointsToSet.copy());
+            set = pointsToSet.copy();
+            pointerEntries.put(pointer, set);
+            policy.offer(pointer, set, true);
         }
     }
 
@@ -68,10 +82,14 @@ final class WorkList {
             // the work list must be processed prior to the pointer entries
             return new CallEdgeEntry(callEdges.poll());
         } else if (!pointerEntries.isEmpty()) {
-            var it = pointerEntries.entrySet().iterator();
-            var e = it.next();
-            it.remove();
-            return new PointerEntry(e.getKey(), e.getValue());
+            while (true) {
+                // skip the pointers that the policy queued more than once
+                Pointer pointer = policy.poll();
+                PointsToSet pts = pointerEntries.remove(pointer);
+                if (pts != null) {
+                    return new PointerEntry(pointer, pts);
+                }
+            }
         } else {
             throw new NoSuchElementException();
         }
@@ -81,6 +99,22 @@ final class WorkList {
         return pointerEntries.isEmpty() && callEdges.isEmpty();
     }
 
+    boolean hasCallEdges() {
+        return !callEdges.isEmpty();
+    }
+
+    /**
+     * Removes all pointer entries from this work list.
+     *
+     * @return the removed entries, i.e., the pending points-to set of each pointer.
+     */
+    Map<Pointer, PointsToSet> pollPointerEntries() {
+        Map<Pointer, PointsToSet> entries = pointerEntries;
+        pointerEntries = Maps.newMap();
+        policy.clear();
+        return entries;
+    }
+
     interface Entry {
     }
 
@@ -0,0 +1,294 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.core.solver;
+
+import pascal.taie.analysis.pta.core.cs.element.Pointer;
+import pascal.taie.analysis.pta.pts.PointsToSet;
+import pascal.taie.config.ConfigException;
+import pascal.taie.util.graph.SCC;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Queue;
+
+/**
+ * Scheduling policy of {@link WorkList}, which decides the order in
+ * which the pending pointer entries are processed. Call edges are
+ * always processed before pointer entries, regardless of the policy.
+ * <p>
+ * A policy only queues pointers; their pending points-to sets are kept
+ * by the work list. A policy may queue a pointer multiple times, and
+ * the work list skips the pointers that are no longer pending.
+ */
+interface WorkListPolicy {
+
+    /**
+     * Called when the pending points-to set of pointer changes.
+     *
+     * @param pointer the pointer
+     * @param pending the pending points-to set of pointer
+     * @param isNew   whether pointer was not pending before
+     */
+    void offer(Pointer pointer, PointsToSet pending, boolean isNew);
+
+    /**
+     * Removes and returns the next pointer to process.
+     * Every pending pointer must have been queued by {@link #offer}
+     * and not polled since then.
+     */
+    Pointer poll();
+
+    /**
+     * Removes all queued pointers.
+     */
+    void clear();
+
+    /**
+     * @param name name of the policy, i.e., the value of option
+     *             {@code work-list-policy}
+     * @return the policy of given name.
+     */
+    static WorkListPolicy of(String name, PointerFlowGraph pointerFlowGraph) {
+        return switch (name) {
+            case "fifo" -> new FIFO();
+            case "lrf" -> new LeastRecentlyFired();
+            case "topo" -> new Topological(pointerFlowGraph);
+            case "delta" -> new LargestDelta();
+            default -> throw new ConfigException(
+                    "Unknown work-list policy: " + name
+                            + ", expected fifo, lrf, topo, or delta");
+        };
+    }
+
+    /**
+     * Processes pointers in the order they become pending.
+     */
+    class FIFO implements WorkListPolicy {
+
+        private final Queue<Pointer> queue = new ArrayDeque<>();
+
+        @Override
+        public void offer(Pointer pointer, PointsToSet pending, boolean isNew) {
+            if (isNew) {
+                queue.add(pointer);
+            }
+        }
+
+        @Override
+        public Pointer poll() {
+            return queue.poll();
+        }
+
+        @Override
+        public void clear() {
+            queue.clear();
+        }
+    }
+
+    /**
+     * A queued pointer with its priority. Items of the same
+     * priority are ordered by the time they are queued.
+     */
+    record Item(Pointer pointer, long priority, long time) {
+
+        static final Comparator<Item> ORDER = Comparator
+                .comparingLong(Item::priority)
+                .thenComparingLong(Item::time);
+    }
+
+    /**
+     * Processes first the pointers whose entries were processed least
+     * recently, and pointers that were never processed before all others.
+     */
+    class LeastRecentlyFired implements WorkListPolicy {
+
+        private final Queue<Item> queue = new PriorityQueue<>(Item.ORDER);
+
+        /**
+         * Time when each pointer (by index) was last processed, 0 for never.
+         */
+        private long[] lastFired = new long[1024];
+
+        private long time = 0;
+
+        @Override
+        public void offer(Pointer pointer, PointsToSet pending, boolean isNew) {
+            if (isNew) {
+                int index = pointer.getIndex();
+                long fired = index < lastFired.length ? lastFired[index] : 0;
+                queue.add(new Item(pointer, fired, ++time));
+            }
+        }
+
+        @Override
+        public Pointer poll() {
+            Pointer pointer = queue.remove().pointer();
+            int index = pointer.getIndex();
+            if (index >= lastFired.length) {
+                lastFired = Arrays.copyOf(lastFired,
+                        Math.max(index + 1, lastFired.length * 2));
+            }
+            lastFired[index] = ++time;
+            return pointer;
+        }
+
+        @Override
+        public void clear() {
+            queue.clear();
+        }
+    }
+
+    /**
+     * Processes first the pointers with the largest pending points-to sets.
+     * A pointer is queued again whenever its pending set grows, and the
+     * outdated items are skipped by the work list.
+     */
+    class LargestDelta implements WorkListPolicy {
+
+        private final Queue<Item> queue = new PriorityQueue<>(Item.ORDER);
+
+        private long time = 0;
+
+        @Override
+        public void offer(Pointer pointer, PointsToSet pending, boolean isNew) {
+            queue.add(new Item(pointer, -pending.size(), ++time));
+        }
+
+        @Override
+        public Pointer poll() {
+            return queue.remove().pointer();
+        }
+
+        @Override
+        public void clear() {
+            queue.clear();
+        }
+    }
+
+    /**
+     * Processes pointers in topological order of the strongly connected
+     * components of the pointer flow graph, in waves: a wave processes its
+     * pointers from the sources to the sinks of the graph, and a pointer
+     * that becomes pending while a wave has passed its component is
+     * processed in the next wave. As the graph grows during the analysis,
+     * the order is recomputed between waves, but at most once per as many
+     * processed entries as the graph had pointers, to amortize its cost.
+     */
+    class Topological implements WorkListPolicy {
+
+        private final PointerFlowGraph pointerFlowGraph;
+
+        private final Queue<Item> wave = new PriorityQueue<>(Item.ORDER);
+
+        private final List<Pointer> nextWave = new ArrayList<>();
+
+        /**
+         * Topological rank of the component of each pointer (by index).
+         */
+        private int[] ranks = new int[0];
+
+        /**
+         * Rank of the last processed pointer in the current wave.
+         */
+        private int position = -1;
+
+        /**
+         * Number of entries that can be processed before the ranks are
+         * recomputed.
+         */
+        private long credit = 0;
+
+        private long time = 0;
+
+        Topological(PointerFlowGraph pointerFlowGraph) {
+            this.pointerFlowGraph = pointerFlowGraph;
+        }
+
+        @Override
+        public void offer(Pointer pointer, PointsToSet pending, boolean isNew) {
+            if (isNew) {
+                int rank = getRank(pointer);
+                if (rank >= position) {
+                    wave.add(new Item(pointer, rank, ++time));
+                } else {
+                    nextWave.add(pointer);
+                }
+            }
+        }
+
+        @Override
+        public Pointer poll() {
+            if (wave.isEmpty()) {
+                if (credit <= 0) {
+                    computeRanks();
+                }
+                position = -1;
+                nextWave.forEach(p -> wave.add(new Item(p, getRank(p), ++time)));
+                nextWave.clear();
+            }
+            Item item = wave.remove();
+            position = (int) item.priority();
+            --credit;
+            return item.pointer();
+        }
+
+        @Override
+        public void clear() {
+            wave.clear();
+            nextWave.clear();
+        }
+
+        /**
+         * @return the rank of pointer, or {@link Integer#MAX_VALUE} for
+         * pointers created after the ranks were computed.
+         */
+        private int getRank(Pointer pointer) {
+            int index = pointer.getIndex();
+            return index < ranks.length ? ranks[index] : Integer.MAX_VALUE;
+        }
+
+        private void computeRanks() {
+            // Tarjan's algorithm finds the components in
+            // reverse topological order
+            List<List<Pointer>> components = new SCC<>(pointerFlowGraph).getComponents();
+            int maxIndex = components.stream()
+                    .flatMap(List::stream)
+                    .mapToInt(Pointer::getIndex)
+                    .max()
+                    .orElse(-1);
+            ranks = new int[maxIndex + 1];
+            Arrays.fill(ranks, Integer.MAX_VALUE);
+            for (int i = 0; i < components.size(); ++i) {
+                int rank = components.size() - 1 - i;
+                for (Pointer pointer : components.get(i)) {
+                    ranks[pointer.getIndex()] = rank;
+                }
+            }
+            credit = maxIndex + 1;
+        }
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.pts;
+
+import pascal.taie.analysis.pta.core.cs.element.CSObj;
+import pascal.taie.util.Indexer;
+import pascal.taie.util.collection.IndexerBitSet;
+import pascal.taie.util.collection.SetEx;
+
+import java.util.function.Predicate;
+
+/**
+ * Filter of points-to sets, compiled into bit sets over the object indexer.
+ * <p>
+ * Each object is tested by the predicate at most once, when it first
+ * reaches this filter, and the objects that pass are kept in a bit mask.
+ * Then filtering a points-to set is an intersection with the mask, which
+ * is computed word by word for large points-to sets.
+ * <p>
+ * This class is not thread-safe. A filter is used by one pointer or
+ * pointer flow edge, which is only propagated on one thread at a time.
+ */
+public class PointsToSetFilter {
+
+    private final Indexer<CSObj> objIndexer;
+
+    private final Predicate<CSObj> predicate;
+
+    /**
+     * Objects that have been tested by the predicate.
+     */
+    private final IndexerBitSet<CSObj> tested;
+
+    /**
+     * Objects that have passed the predicate.
+     */
+    private final IndexerBitSet<CSObj> passed;
+
+    public PointsToSetFilter(Indexer<CSObj> objIndexer, Predicate<CSObj> predicate) {
+        this.objIndexer = objIndexer;
+        this.predicate = predicate;
+        tested = new IndexerBitSet<>(objIndexer, true);
+        passed = new IndexerBitSet<>(objIndexer, true);
+    }
+
+    /**
+     * @return a new points-to set of the objects in pts that pass
+     * the predicate of this filter.
+     */
+    public PointsToSet apply(PointsToSet pts) {
+        if (!(pts instanceof DelegatePointsToSet input)) {
+            PointsToSet result = new HybridBitPointsToSet(objIndexer, true);
+            pts.objects().filter(this::test).forEach(result::addObject);
+            return result;
+        }
+        // objects are only collected for testing when there are new ones,
+        // which is rare once the filter has seen the objects of its pointer
+        if (!tested.containsAll(input.set)) {
+            SetEx<CSObj> untested = input.set.copy();
+            untested.removeAll(tested);
+            untested.forEach(this::test);
+        }
+        SetEx<CSObj> result = input.set.copy();
+        result.retainAll(passed);
+        return input.newSet(result);
+    }
+
+    private boolean test(CSObj obj) {
+        if (tested.add(obj)) {
+            if (predicate.test(obj)) {
+                passed.add(obj);
+                return true;
+            }
+            return false;
+        }
+        return passed.contains(obj);
+    }
+}
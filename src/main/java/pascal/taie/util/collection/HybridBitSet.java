@@ -24,6 +24,7 @@ package pascal.taie.util.collection;
 
 import pascal.taie.util.Indexer;
 
+import javax.annotation.Nonnull;
 import java.io.Serializable;
 import java.util.Collection;
 import java.util.Set;
@@ -86,6 +87,30 @@ public final class HybridBitSet<E> extends AbstractHybridSet<E>
         return diff;
     }
 
+    /**
+     * Intersects with a bit set word by word, if this set is a large set.
+     */
+    @Override
+    public boolean retainAll(@Nonnull Collection<?> c) {
+        if (isLargeSet && c instanceof GenericBitSet) {
+            return set.retainAll(c);
+        }
+        return super.retainAll(c);
+    }
+
+    /**
+     * Subtracts a bit set word by word, if this set is a large set.
+     * Otherwise, only the elements of this set are looked up in the
+     * bit set, which may be much larger than this set.
+     */
+    @Override
+    public boolean removeAll(Collection<?> c) {
+        if (c instanceof GenericBitSet) {
+            return isLargeSet ? set.removeAll(c) : removeIf(c::contains);
+        }
+        return super.removeAll(c);
+    }
+
     @Override
     public HybridBitSet<E> copy() {
         HybridBitSet<E> copy = new HybridBitSet<>(indexer, isSparse);
@@ -0,0 +1,53 @@
+package pku;
+
+import java.util.Optional;
+
+import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.ir.stmt.New;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.type.Type;
+
+/**
+ * Abstract object of an allocation site, identified by its allocation ID.
+ * Lets context selectors of Tai-e work on pku objects.
+ */
+public class AllocObj extends Obj {
+
+    private final int allocId;
+
+    private final New allocSite;
+
+    AllocObj(int allocId, New allocSite) {
+        this.allocId = allocId;
+        this.allocSite = allocSite;
+    }
+
+    public int getAllocId() {
+        return allocId;
+    }
+
+    @Override
+    public Type getType() {
+        return allocSite.getRValue().getType();
+    }
+
+    @Override
+    public New getAllocation() {
+        return allocSite;
+    }
+
+    @Override
+    public Optional<JMethod> getContainerMethod() {
+        return Optional.of(allocSite.getContainer());
+    }
+
+    @Override
+    public Type getContainerType() {
+        return allocSite.getContainer().getDeclaringClass().getType();
+    }
+
+    @Override
+    public String toString() {
+        return "AllocObj{" + allocId + "}";
+    }
+}
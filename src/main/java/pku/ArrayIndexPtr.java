@@ -0,0 +1,37 @@
+package pku;
+
+import pascal.taie.util.Indexer;
+
+/**
+ * Pointer flow graph node for a slot of an array object.
+ *
+ * A slot is either a constant index, or {@link #ANY_INDEX} which stands for
+ * stores through unknown indexes. Every constant slot of an array flows into
+ * its {@link #ANY_INDEX} slot, so loads through unknown indexes read all elements.
+ */
+public class ArrayIndexPtr extends Pointer {
+    /** Index of the slot that merges all elements of an array */
+    public static final int ANY_INDEX = Integer.MIN_VALUE;
+
+    private final int objId;
+    private final int index;
+
+    ArrayIndexPtr(int objId, int index, Indexer<Integer> objIndexer) {
+        super(objIndexer);
+        this.objId = objId;
+        this.index = index;
+    }
+
+    public int getObjId() {
+        return objId;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    @Override
+    public String toString() {
+        return objId + (index == ANY_INDEX ? "[]" : "[" + index + "]");
+    }
+}
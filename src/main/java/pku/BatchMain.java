@@ -0,0 +1,73 @@
+package pku;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import pascal.taie.Main;
+import pascal.taie.World;
+import pascal.taie.analysis.AnalysisManager;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.config.ConfigException;
+import pascal.taie.config.Configs;
+import pascal.taie.config.Plan;
+import pascal.taie.language.classes.JClass;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.classes.Subsignature;
+import pascal.taie.util.graph.SimpleGraph;
+
+/**
+ * Batch driver of pku-pta: builds the world once for a class path, then
+ * analyzes several main classes in it and writes result-[Class].txt for
+ * each of them, where [Class] is the simple name of the main class.
+ *
+ * Usage: BatchMain [class-path] [main-class]...
+ */
+public class BatchMain {
+
+    private static final Logger logger = LogManager.getLogger(BatchMain.class);
+
+    private static final Subsignature MAIN = Subsignature.get("void main(java.lang.String[])");
+
+    public static void main(String... args) {
+        if (args.length < 2) {
+            System.err.println("Usage: BatchMain <class-path> <main-class>...");
+            System.exit(1);
+        }
+        String classPath = args[0];
+        List<String> mainClasses = Arrays.asList(args).subList(1, args.length);
+        Main.buildWorld("-cp", classPath,
+                "--input-classes", String.join(",", mainClasses),
+                "-a", PointerAnalysis.ID);
+
+        List<AnalysisConfig> configs = AnalysisConfig.parseConfigs(Configs.getAnalysisConfig());
+        // preprocess all classes once, in parallel, as for a single pku-pta run
+        new AnalysisManager(new Plan(List.of(getConfig(configs, Preprocess.ID)),
+                new SimpleGraph<>(), Set.of(Plan.KEEP_ALL))).execute();
+
+        AnalysisConfig ptaConfig = getConfig(configs, PointerAnalysis.ID);
+        for (String mainClass : mainClasses) {
+            JClass jclass = World.get().getClassHierarchy().getClass(mainClass);
+            JMethod main = jclass != null ? jclass.getDeclaredMethod(MAIN) : null;
+            if (main == null) {
+                logger.warn("Skip {}, which has no main(String[]) method", mainClass);
+                continue;
+            }
+            logger.info("Analyzing {}", mainClass);
+            PointerAnalysisResult result = new PointerAnalysis(ptaConfig).analyze(main);
+            PointerAnalysisTrivial.dump(result,
+                    new File("result-" + jclass.getSimpleName() + ".txt"));
+        }
+    }
+
+    private static AnalysisConfig getConfig(List<AnalysisConfig> configs, String id) {
+        return configs.stream()
+                .filter(config -> config.getId().equals(id))
+                .findFirst()
+                .orElseThrow(() -> new ConfigException("Analysis \"" + id + "\" is not found"));
+    }
+}
@@ -0,0 +1,93 @@
+package pku;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Wall-clock and work budget of an analysis run.
+ *
+ * The time limit is counted down by a separate thread, like the time
+ * limiter of {@code DefaultSolver}; work is counted by the solver, one unit
+ * per processed work list entry or statement visit.
+ */
+public class Budget {
+
+    /** Limit value meaning no limit */
+    public static final int UNLIMITED = -1;
+
+    private static final long MILLIS_FACTOR = 1000;
+
+    private final long timeLimit;
+
+    private final long workLimit;
+
+    /** Units of work done, counted by any thread of the solver */
+    private final AtomicLong work = new AtomicLong();
+
+    private volatile boolean isTimeout;
+
+    private Thread timer;
+
+    /**
+     * @param timeLimit time limit in seconds, or {@link #UNLIMITED}
+     * @param workLimit maximum units of work, or {@link #UNLIMITED}
+     */
+    public Budget(long timeLimit, long workLimit) {
+        this.timeLimit = timeLimit;
+        this.workLimit = workLimit;
+    }
+
+    /** @return a budget without any limit */
+    public static Budget unlimited() {
+        return new Budget(UNLIMITED, UNLIMITED);
+    }
+
+    /** Starts counting down the time limit */
+    public void start() {
+        if (timeLimit != UNLIMITED) {
+            timer = new Thread(() -> {
+                try {
+                    Thread.sleep(timeLimit * MILLIS_FACTOR);
+                } catch (InterruptedException ignored) {
+                    return;
+                }
+                isTimeout = true;
+            });
+            timer.setDaemon(true);
+            timer.start();
+        }
+    }
+
+    /** Stops counting down the time limit */
+    public void stop() {
+        if (timer != null) {
+            timer.interrupt();
+        }
+    }
+
+    /**
+     * Consumes one unit of work.
+     * @return false if the budget is exhausted, and the work must not be done
+     */
+    public boolean consume() {
+        if (isExhausted()) {
+            return false;
+        }
+        work.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * @return true if no more work may be done
+     */
+    public boolean isExhausted() {
+        return isTimeout || (workLimit != UNLIMITED && work.get() >= workLimit);
+    }
+
+    public boolean isTimeout() {
+        return isTimeout;
+    }
+
+    public long getWork() {
+        return work.get();
+    }
+}
@@ -0,0 +1,692 @@
+package pku;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import pascal.taie.World;
+import pascal.taie.analysis.graph.callgraph.CallGraphs;
+import pascal.taie.analysis.pta.core.cs.context.Context;
+import pascal.taie.analysis.pta.core.cs.selector.ContextSelectorFactory;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.InstanceFieldAccess;
+import pascal.taie.ir.exp.InvokeExp;
+import pascal.taie.ir.exp.InvokeInstanceExp;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Cast;
+import pascal.taie.ir.stmt.Copy;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.LoadArray;
+import pascal.taie.ir.stmt.LoadField;
+import pascal.taie.ir.stmt.New;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.ir.stmt.StoreArray;
+import pascal.taie.ir.stmt.StoreField;
+import pascal.taie.language.classes.ClassHierarchy;
+import pascal.taie.language.classes.JClass;
+import pascal.taie.language.classes.JField;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.classes.Subsignature;
+import pascal.taie.util.Indexer;
+import pascal.taie.util.SimpleIndexer;
+
+/**
+ * Demand-driven, context-insensitive solver for the points-to sets of
+ * single variables, e.g., the variables of Benchmark.test.
+ *
+ * A query walks the assignments backwards from its variable: a demanded
+ * pointer pulls in the pointers that flow into it, and only demanded
+ * pointers take part in propagation. Loads are matched with stores of the
+ * same field whose base may point to the same object, so the base variables
+ * of both are demanded as well (field-sensitive CFL-reachability with
+ * load/store matching). Virtual calls are resolved from the demanded
+ * points-to sets of their receivers.
+ *
+ * All application methods are taken as reachable, so a points-to set may
+ * contain objects that flow only through code unreachable from the entry.
+ * Demanded pointers and their points-to sets are shared by all queries.
+ */
+public class DemandSolver {
+
+    private final PreprocessResult preprocess;
+
+    /** Indexer of allocation IDs, for the points-to sets of results */
+    private final Indexer<Integer> objIndexer;
+
+    /** Indexer of allocation sites, for internal points-to sets */
+    private final Indexer<Integer> siteIndexer = new SimpleIndexer<>();
+
+    /** Budget of the whole analysis, one unit per processed work list entry */
+    private final Budget budget;
+
+    /** Work limit of one query */
+    private final int queryLimit;
+
+    private final Context context = ContextSelectorFactory.makeCISelector().getEmptyContext();
+
+    private final PointerFlowGraph pointerFlowGraph;
+
+    private final DispatchCache dispatchCache;
+
+    private final ClassHierarchy hierarchy = World.get().getClassHierarchy();
+
+    private final WorkList workList = new WorkList();
+
+    private final Set<Pointer> demanded = new HashSet<>();
+
+    /** Pointers whose points-to sets each demanded pointer depends on */
+    private final Map<Pointer, Set<Pointer>> dependencies = new HashMap<>();
+
+    /** Allocation sites, indexed by the objects of internal points-to sets */
+    private final List<New> allocSites = new ArrayList<>();
+
+    private final Map<New, Integer> allocSiteIds = new HashMap<>();
+
+    /** Statements defining each variable of a scanned method */
+    private final Map<JMethod, Map<Var, List<Stmt>>> defs = new HashMap<>();
+
+    // Stores and calls of all application methods, for the backward steps
+    private final Map<JField, List<StoreField>> fieldStores = new HashMap<>();
+
+    private final List<StoreArray> arrayStores = new ArrayList<>();
+
+    private final Map<Subsignature, List<Invoke>> callSites = new HashMap<>();
+
+    /** Targets resolved at each call site so far */
+    private final Map<Invoke, Set<JMethod>> callTargets = new HashMap<>();
+
+    /** Instance calls whose targets are demanded, kept for falling back to the declared method */
+    private final Set<Invoke> instanceCalls = new LinkedHashSet<>();
+
+    /** Instance calls that fell back to the declared method */
+    private final Set<Invoke> fallbackCalls = new HashSet<>();
+
+    private Metrics metrics = Metrics.DISABLED;
+
+    public DemandSolver(PreprocessResult preprocess, Indexer<Integer> objIndexer,
+                        Budget budget, int queryLimit) {
+        this.preprocess = preprocess;
+        this.objIndexer = objIndexer;
+        this.budget = budget;
+        this.queryLimit = queryLimit;
+        this.pointerFlowGraph = new PointerFlowGraph(siteIndexer);
+        this.dispatchCache = new DispatchCache(
+                siteId -> allocSites.get(siteId).getRValue().getType(), siteIndexer);
+        hierarchy.applicationClasses()
+                .flatMap(c -> c.getDeclaredMethods().stream())
+                .forEach(this::indexMethod);
+    }
+
+    /** Sets the metrics counted while answering queries */
+    public void setMetrics(Metrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Solves the points-to set of var, reusing what earlier queries solved.
+     * @return false if the query or the analysis runs out of budget,
+     *         then the points-to sets of all pointers may be incomplete
+     */
+    public boolean query(Var var) {
+        Budget queryBudget = new Budget(Budget.UNLIMITED, queryLimit);
+        metrics.increment(Metrics.Counter.QUERIES);
+        demand(getVarPtr(var));
+        do {
+            metrics.increment(Metrics.Counter.ITERATIONS);
+            while (!workList.isEmpty()) {
+                if (!queryBudget.consume() || !budget.consume()) {
+                    return false;
+                }
+                WorkList.PointerEntry entry = (WorkList.PointerEntry) workList.pollEntry();
+                metrics.increment(Metrics.Counter.WORK_LIST_ENTRIES);
+                Pointer pointer = entry.pointer();
+                PointsToSet diff = propagate(pointer, entry.pts());
+                if (!diff.isEmpty() && pointer instanceof VarPtr varPtr) {
+                    processNewObjects(varPtr.getVar(), diff);
+                }
+            }
+        } while (resolveFallbackCalls());
+        return true;
+    }
+
+    /**
+     * @return points-to set of var, complete only if var has been queried
+     */
+    public PointsToSet getPts(Var var) {
+        PointsToSet pts = new PointsToSet(objIndexer);
+        for (Integer siteId : getVarPtr(var).getPts()) {
+            pts.add(preprocess.obj_ids.get(allocSites.get(siteId)));
+        }
+        return pts;
+    }
+
+    /**
+     * Collects what the points-to set of a queried variable depends on:
+     * the methods of the variables it transitively depends on, the fields
+     * and call sites they are loaded from, and the methods they are
+     * parameters of. Only changes to these can change the points-to set.
+     */
+    public Snapshot.Footprint getFootprint(Var var) {
+        Set<Pointer> slice = new HashSet<>();
+        List<Pointer> stack = new ArrayList<>();
+        stack.add(getVarPtr(var));
+        while (!stack.isEmpty()) {
+            Pointer pointer = stack.remove(stack.size() - 1);
+            if (slice.add(pointer)) {
+                stack.addAll(dependencies.getOrDefault(pointer, Set.of()));
+            }
+        }
+        Snapshot.Footprint footprint = new Snapshot.Footprint();
+        for (Pointer pointer : slice) {
+            if (pointer instanceof VarPtr varPtr) {
+                Var v = varPtr.getVar();
+                JMethod method = v.getMethod();
+                footprint.methods().add(method.getSignature());
+                for (Stmt stmt : getDefs(method, v)) {
+                    if (stmt instanceof LoadField load) {
+                        footprint.fields().add(load.getFieldRef().resolve().getSignature());
+                    } else if (stmt instanceof LoadArray) {
+                        footprint.fields().add(Snapshot.ARRAY_FIELD);
+                    } else if (stmt instanceof Invoke invoke) {
+                        footprint.invoked().add(
+                                invoke.getMethodRef().getSubsignature().toString());
+                    }
+                }
+                MethodSummary summary = preprocess.getSummary(method);
+                if (summary != null && (v.equals(summary.getThis())
+                        || summary.getParams().contains(v))) {
+                    footprint.called().add(method.getSubsignature().toString());
+                }
+            }
+        }
+        return footprint;
+    }
+
+    /** Indexes the stores and calls of an application method */
+    private void indexMethod(JMethod method) {
+        MethodSummary summary = preprocess.getSummary(method);
+        if (summary == null) {
+            return;
+        }
+        for (Stmt stmt : summary.getStores()) {
+            if (stmt instanceof StoreField store) {
+                fieldStores.computeIfAbsent(store.getFieldRef().resolve(),
+                        k -> new ArrayList<>()).add(store);
+            } else if (stmt instanceof StoreArray store) {
+                arrayStores.add(store);
+            }
+        }
+        for (Invoke invoke : summary.getInvokes()) {
+            callSites.computeIfAbsent(invoke.getMethodRef().getSubsignature(),
+                    k -> new ArrayList<>()).add(invoke);
+        }
+    }
+
+    /**
+     * @return statements of method defining var, empty if method is not
+     *         an application method
+     */
+    private List<Stmt> getDefs(JMethod method, Var var) {
+        return defs.computeIfAbsent(method, this::scanMethod).getOrDefault(var, List.of());
+    }
+
+    /** Collects the definitions of a method, in statement order */
+    private Map<Var, List<Stmt>> scanMethod(JMethod method) {
+        Map<Var, List<Stmt>> methodDefs = new HashMap<>();
+        if (!method.isApplication() || method.isAbstract() || method.isNative()) {
+            return methodDefs;
+        }
+        IR ir = method.getIR();
+        if (ir == null) {
+            return methodDefs;
+        }
+        for (Stmt stmt : ir.getStmts()) {
+            Var lhs = null;
+            if (stmt instanceof New newStmt) {
+                lhs = newStmt.getLValue();
+            } else if (stmt instanceof Copy copyStmt) {
+                lhs = copyStmt.getLValue();
+            } else if (stmt instanceof Cast castStmt) {
+                lhs = castStmt.getLValue();
+            } else if (stmt instanceof LoadField loadStmt) {
+                lhs = loadStmt.getLValue();
+            } else if (stmt instanceof LoadArray loadStmt) {
+                lhs = loadStmt.getLValue();
+            } else if (stmt instanceof Invoke invokeStmt) {
+                lhs = invokeStmt.getLValue();
+            }
+            if (lhs != null) {
+                methodDefs.computeIfAbsent(lhs, k -> new ArrayList<>()).add(stmt);
+            }
+        }
+        return methodDefs;
+    }
+
+    private VarPtr getVarPtr(Var var) {
+        return pointerFlowGraph.getVarPtr(context, var);
+    }
+
+    private int getArrayIndex(StoreArray store) {
+        return getArrayIndex(store, store.getArrayAccess().getBase().getMethod());
+    }
+
+    private int getArrayIndex(LoadArray load) {
+        return getArrayIndex(load, load.getArrayAccess().getBase().getMethod());
+    }
+
+    private int getArrayIndex(Stmt stmt, JMethod method) {
+        return preprocess.getSummary(method).getArrayIndex(stmt);
+    }
+
+    /**
+     * Adds the edges and objects flowing into pointer, when it is first demanded.
+     * @return true if pointer is newly demanded
+     */
+    private boolean demand(Pointer pointer) {
+        if (!demanded.add(pointer)) {
+            return false;
+        }
+        if (pointer instanceof VarPtr varPtr) {
+            demandVar(varPtr.getVar());
+        } else if (pointer instanceof FieldPtr fieldPtr) {
+            demandField(fieldPtr);
+        } else if (pointer instanceof StaticFieldPtr staticFieldPtr) {
+            for (StoreField store : fieldStores.getOrDefault(
+                    staticFieldPtr.getField(), List.of())) {
+                if (store.isStatic()) {
+                    addEdge(getVarPtr(store.getRValue()), pointer);
+                }
+            }
+        } else if (pointer instanceof ArrayIndexPtr arrayIndexPtr) {
+            linkAnySlot(arrayIndexPtr);
+            demandArrayIndex(arrayIndexPtr);
+        }
+        return true;
+    }
+
+    /**
+     * Objects flow from the constant slots of an array to its
+     * {@link ArrayIndexPtr#ANY_INDEX} slot only once both are demanded.
+     * When the ANY_INDEX slot is demanded, it receives the objects that
+     * the constant slots demanded before it already hold.
+     */
+    private void linkAnySlot(ArrayIndexPtr slot) {
+        if (slot.getIndex() == ArrayIndexPtr.ANY_INDEX) {
+            for (ArrayIndexPtr constSlot : pointerFlowGraph.getArrayIndexPtrsOf(slot.getObjId())) {
+                if (constSlot != slot && demanded.contains(constSlot)) {
+                    addDependency(slot, constSlot);
+                    if (!constSlot.getPts().isEmpty()) {
+                        workList.addEntry(slot, constSlot.getPts());
+                    }
+                }
+            }
+        } else {
+            ArrayIndexPtr anySlot = pointerFlowGraph.getArrayIndexPtr(
+                    slot.getObjId(), ArrayIndexPtr.ANY_INDEX);
+            if (demanded.contains(anySlot)) {
+                addDependency(anySlot, slot);
+            }
+        }
+    }
+
+    private void demandVar(Var var) {
+        JMethod method = var.getMethod();
+        VarPtr ptr = getVarPtr(var);
+        for (Stmt stmt : getDefs(method, var)) {
+            if (stmt instanceof New newStmt) {
+                if (preprocess.obj_ids.containsKey(newStmt)) {
+                    PointsToSet pts = new PointsToSet(siteIndexer);
+                    pts.add(getSiteId(newStmt));
+                    workList.addEntry(ptr, pts);
+                }
+            } else if (stmt instanceof Copy copyStmt) {
+                addEdge(getVarPtr(copyStmt.getRValue()), ptr);
+            } else if (stmt instanceof Cast castStmt) {
+                addEdge(getVarPtr(castStmt.getRValue().getValue()), ptr);
+            } else if (stmt instanceof LoadField loadStmt) {
+                if (loadStmt.isStatic()) {
+                    addEdge(pointerFlowGraph.getStaticFieldPtr(
+                            loadStmt.getFieldRef().resolve()), ptr);
+                } else {
+                    Var base = ((InstanceFieldAccess) loadStmt.getFieldAccess()).getBase();
+                    addDependency(ptr, getVarPtr(base));
+                    JField field = loadStmt.getFieldRef().resolve();
+                    for (Integer siteId : getVarPtr(base).getPts()) {
+                        addEdge(pointerFlowGraph.getFieldPtr(siteId, field), ptr);
+                    }
+                }
+            } else if (stmt instanceof LoadArray loadStmt) {
+                Var base = loadStmt.getArrayAccess().getBase();
+                addDependency(ptr, getVarPtr(base));
+                int index = getArrayIndex(loadStmt);
+                for (Integer siteId : getVarPtr(base).getPts()) {
+                    addEdge(pointerFlowGraph.getArrayIndexPtr(siteId, index), ptr);
+                }
+            } else if (stmt instanceof Invoke invoke) {
+                demandCall(invoke, ptr);
+                for (JMethod target : callTargets.getOrDefault(invoke, Set.of())) {
+                    linkReturn(invoke, target);
+                }
+            }
+        }
+        MethodSummary summary = preprocess.getSummary(method);
+        if (summary == null) {
+            return;
+        }
+        if (var.equals(summary.getThis())) {
+            demandThis(method, var);
+        }
+        int i = summary.getParams().indexOf(var);
+        if (i >= 0) {
+            demandParam(method, i);
+        }
+    }
+
+    /** Demands the objects stored into (o, f) through any base pointing to o */
+    private void demandField(FieldPtr fieldPtr) {
+        for (StoreField store : fieldStores.getOrDefault(fieldPtr.getField(), List.of())) {
+            if (!store.isStatic()) {
+                VarPtr base = getVarPtr(
+                        ((InstanceFieldAccess) store.getFieldAccess()).getBase());
+                addDependency(fieldPtr, base);
+                if (base.getPts().contains(fieldPtr.getObjId())) {
+                    addEdge(getVarPtr(store.getRValue()), fieldPtr);
+                }
+            }
+        }
+    }
+
+    /**
+     * Demands the objects stored into a slot of o through any base pointing
+     * to o. The {@link ArrayIndexPtr#ANY_INDEX} slot reads all slots.
+     */
+    private void demandArrayIndex(ArrayIndexPtr slot) {
+        for (StoreArray store : arrayStores) {
+            int index = getArrayIndex(store);
+            if (slot.getIndex() != ArrayIndexPtr.ANY_INDEX && index != slot.getIndex()) {
+                continue;
+            }
+            VarPtr base = getVarPtr(store.getArrayAccess().getBase());
+            addDependency(slot, base);
+            if (base.getPts().contains(slot.getObjId())) {
+                addArrayStoreEdge(store, slot.getObjId(), index);
+            }
+        }
+    }
+
+    /**
+     * Resolves the targets of invoke, from the receiver objects for instance calls
+     * @param dependent the demanded pointer that depends on the targets
+     */
+    private void demandCall(Invoke invoke, Pointer dependent) {
+        if (invoke.isStatic()) {
+            JMethod target = invoke.getMethodRef().resolve();
+            if (!target.isAbstract()) {
+                addCallTarget(invoke, target);
+            }
+        } else if (invoke.getInvokeExp() instanceof InvokeInstanceExp instanceExp) {
+            VarPtr base = getVarPtr(instanceExp.getBase());
+            addDependency(dependent, base);
+            if (instanceCalls.add(invoke)) {
+                processReceivers(invoke, base.getPts());
+            }
+        }
+    }
+
+    /**
+     * @return call sites that may call method, by subsignature and class hierarchy
+     */
+    private List<Invoke> getCallSites(JMethod method) {
+        List<Invoke> sites = new ArrayList<>();
+        JClass declaringClass = method.getDeclaringClass();
+        for (Invoke invoke : callSites.getOrDefault(method.getSubsignature(), List.of())) {
+            if (invoke.isStatic() != method.isStatic()) {
+                continue;
+            }
+            JClass refClass = invoke.getMethodRef().getDeclaringClass();
+            if (invoke.isStatic() ? invoke.getMethodRef().resolve() == method
+                    // the target is declared in a subclass, or inherited from a superclass
+                    : hierarchy.isSubclass(refClass, declaringClass)
+                    || hierarchy.isSubclass(declaringClass, refClass)) {
+                sites.add(invoke);
+            }
+        }
+        return sites;
+    }
+
+    /** Demands the arguments passed to the i-th parameter of method */
+    private void demandParam(JMethod method, int i) {
+        VarPtr param = getVarPtr(preprocess.getSummary(method).getParams().get(i));
+        for (Invoke invoke : getCallSites(method)) {
+            demandCall(invoke, param);
+            if (callTargets.getOrDefault(invoke, Set.of()).contains(method)) {
+                linkArg(invoke, method, i);
+            }
+        }
+    }
+
+    /** Demands the receiver objects of calls that dispatch to method */
+    private void demandThis(JMethod method, Var thisVar) {
+        for (Invoke invoke : getCallSites(method)) {
+            demandCall(invoke, getVarPtr(thisVar));
+            if (fallbackCalls.contains(invoke)) {
+                if (invoke.getMethodRef().resolve() == method) {
+                    Var base = ((InvokeInstanceExp) invoke.getInvokeExp()).getBase();
+                    addEdge(getVarPtr(base), getVarPtr(thisVar));
+                }
+                continue;
+            }
+            Var base = ((InvokeInstanceExp) invoke.getInvokeExp()).getBase();
+            PointsToSet recvPts = new PointsToSet(siteIndexer);
+            for (Integer siteId : getVarPtr(base).getPts()) {
+                if (resolveCallee(invoke, siteId) == method) {
+                    recvPts.add(siteId);
+                }
+            }
+            if (!recvPts.isEmpty()) {
+                workList.addEntry(getVarPtr(thisVar), recvPts);
+            }
+        }
+    }
+
+    /**
+     * Propagates pts to the points-to set of pointer and its demanded successors.
+     * @return the objects that are new to pointer
+     */
+    private PointsToSet propagate(Pointer pointer, PointsToSet pts) {
+        PointsToSet diff = pointer.getPts().addAllDiff(pts);
+        if (!diff.isEmpty()) {
+            metrics.increment(Metrics.Counter.PROPAGATIONS);
+            metrics.add(Metrics.Counter.PROPAGATED_OBJECTS, diff::size);
+            for (Pointer succ : pointer.getSuccessors()) {
+                if (demanded.contains(succ)) {
+                    workList.addEntry(succ, diff);
+                }
+            }
+        }
+        return diff;
+    }
+
+    /** Processes the statements that use a variable, for its new objects */
+    private void processNewObjects(Var var, PointsToSet diff) {
+        if (!var.getMethod().isApplication()) {
+            return;
+        }
+        for (LoadField load : var.getLoadFields()) {
+            VarPtr to = getVarPtr(load.getLValue());
+            if (demanded.contains(to)) {
+                JField field = load.getFieldRef().resolve();
+                for (Integer siteId : diff) {
+                    addEdge(pointerFlowGraph.getFieldPtr(siteId, field), to);
+                }
+            }
+        }
+        for (StoreField store : var.getStoreFields()) {
+            JField field = store.getFieldRef().resolve();
+            for (Integer siteId : diff) {
+                FieldPtr fieldPtr = pointerFlowGraph.getFieldPtr(siteId, field);
+                if (demanded.contains(fieldPtr)) {
+                    addEdge(getVarPtr(store.getRValue()), fieldPtr);
+                }
+            }
+        }
+        for (LoadArray load : var.getLoadArrays()) {
+            VarPtr to = getVarPtr(load.getLValue());
+            if (demanded.contains(to)) {
+                int index = getArrayIndex(load);
+                for (Integer siteId : diff) {
+                    addEdge(pointerFlowGraph.getArrayIndexPtr(siteId, index), to);
+                }
+            }
+        }
+        for (StoreArray store : var.getStoreArrays()) {
+            int index = getArrayIndex(store);
+            for (Integer siteId : diff) {
+                if (demanded.contains(pointerFlowGraph.getArrayIndexPtr(siteId, index))
+                        || demanded.contains(pointerFlowGraph.getArrayIndexPtr(
+                                siteId, ArrayIndexPtr.ANY_INDEX))) {
+                    addArrayStoreEdge(store, siteId, index);
+                }
+            }
+        }
+        for (Invoke invoke : var.getInvokes()) {
+            if (instanceCalls.contains(invoke)) {
+                processReceivers(invoke, diff);
+            }
+        }
+    }
+
+    /**
+     * Dispatches an instance call on receiver objects, and passes each
+     * receiver object to this of the callee if it is demanded.
+     */
+    private void processReceivers(Invoke invoke, PointsToSet pts) {
+        for (Integer siteId : pts) {
+            JMethod target = resolveCallee(invoke, siteId);
+            if (target == null) {
+                continue;
+            }
+            addCallTarget(invoke, target);
+            MethodSummary summary = preprocess.getSummary(target);
+            if (summary != null && summary.getThis() != null) {
+                VarPtr thisPtr = getVarPtr(summary.getThis());
+                if (demanded.contains(thisPtr)) {
+                    PointsToSet recvPts = new PointsToSet(siteIndexer);
+                    recvPts.add(siteId);
+                    workList.addEntry(thisPtr, recvPts);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the method that invoke calls on the receiver object allocated
+     *         at siteId, or null if there is none
+     */
+    private JMethod resolveCallee(Invoke invoke, int siteId) {
+        // constructors, private and super calls do not depend on the receiver type
+        JMethod target = invoke.isSpecial() ? CallGraphs.resolveCallee(null, invoke)
+                : dispatchCache.dispatch(allocSites.get(siteId).getRValue().getType(),
+                invoke.getMethodRef());
+        return target == null || target.isAbstract() ? null : target;
+    }
+
+    /**
+     * Instance calls that never resolved a target fall back to
+     * the declared method, as {@link Solver} does.
+     * @return true if any call target is added
+     */
+    private boolean resolveFallbackCalls() {
+        boolean changed = false;
+        for (Invoke invoke : List.copyOf(instanceCalls)) {
+            if (callTargets.getOrDefault(invoke, Set.of()).isEmpty()) {
+                JMethod declaredMethod = invoke.getMethodRef().resolve();
+                if (!declaredMethod.isAbstract()) {
+                    fallbackCalls.add(invoke);
+                    addCallTarget(invoke, declaredMethod);
+                    // no receiver object selected the callee, so pass the base as a whole
+                    MethodSummary summary = preprocess.getSummary(declaredMethod);
+                    if (summary != null && summary.getThis() != null
+                            && demanded.contains(getVarPtr(summary.getThis()))) {
+                        Var base = ((InvokeInstanceExp) invoke.getInvokeExp()).getBase();
+                        addEdge(getVarPtr(base), getVarPtr(summary.getThis()));
+                    }
+                    changed = true;
+                }
+            }
+        }
+        return changed;
+    }
+
+    /** Records a target of invoke, and links its demanded parameters and return value */
+    private void addCallTarget(Invoke invoke, JMethod target) {
+        if (!callTargets.computeIfAbsent(invoke, k -> new LinkedHashSet<>()).add(target)) {
+            return;
+        }
+        Var lhs = invoke.getLValue();
+        if (lhs != null && demanded.contains(getVarPtr(lhs))) {
+            linkReturn(invoke, target);
+        }
+        MethodSummary summary = preprocess.getSummary(target);
+        if (summary != null) {
+            List<Var> params = summary.getParams();
+            for (int i = 0; i < params.size(); i++) {
+                if (demanded.contains(getVarPtr(params.get(i)))) {
+                    linkArg(invoke, target, i);
+                }
+            }
+        }
+    }
+
+    private void linkReturn(Invoke invoke, JMethod target) {
+        MethodSummary summary = preprocess.getSummary(target);
+        if (summary != null) {
+            VarPtr lhs = getVarPtr(invoke.getLValue());
+            for (Var ret : summary.getReturnVars()) {
+                addEdge(getVarPtr(ret), lhs);
+            }
+        }
+    }
+
+    private void linkArg(Invoke invoke, JMethod target, int i) {
+        InvokeExp invokeExp = invoke.getInvokeExp();
+        MethodSummary summary = preprocess.getSummary(target);
+        if (summary != null && i < invokeExp.getArgCount()) {
+            addEdge(getVarPtr(invokeExp.getArg(i)), getVarPtr(summary.getParams().get(i)));
+        }
+    }
+
+    private void addArrayStoreEdge(StoreArray store, int siteId, int index) {
+        ArrayIndexPtr slot = pointerFlowGraph.getArrayIndexPtr(siteId, index);
+        demand(slot);
+        addEdge(getVarPtr(store.getRValue()), slot);
+    }
+
+    /** Adds an edge source -> target of a demanded target, and demands source */
+    private void addEdge(Pointer source, Pointer target) {
+        addDependency(target, source);
+        if (pointerFlowGraph.addEdge(source, target)) {
+            metrics.increment(Metrics.Counter.POINTER_FLOW_EDGES);
+            if (!source.getPts().isEmpty()) {
+                workList.addEntry(target, source.getPts());
+            }
+        }
+    }
+
+    /** Records that dependent depends on the points-to set of pointer, and demands pointer */
+    private void addDependency(Pointer dependent, Pointer pointer) {
+        dependencies.computeIfAbsent(dependent, k -> new HashSet<>()).add(pointer);
+        demand(pointer);
+    }
+
+    private int getSiteId(New newStmt) {
+        return allocSiteIds.computeIfAbsent(newStmt, k -> {
+            allocSites.add(newStmt);
+            return allocSites.size() - 1;
+        });
+    }
+}
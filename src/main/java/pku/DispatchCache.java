@@ -0,0 +1,107 @@
+package pku;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+import pascal.taie.World;
+import pascal.taie.ir.proginfo.MethodRef;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.language.classes.ClassHierarchy;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.type.Type;
+import pascal.taie.util.Indexer;
+
+/**
+ * Memoized virtual call resolution.
+ *
+ * Targets are looked up once per (receiver type, method reference) through
+ * {@link ClassHierarchy#dispatch(Type, MethodRef)}, including lookups that
+ * find nothing. Each call site also remembers the receiver objects it has
+ * already resolved, so only newly arrived receivers are dispatched.
+ */
+public class DispatchCache {
+
+    /** Type of each object of the points-to sets */
+    private final Function<Integer, Type> typeOf;
+
+    private final Indexer<Integer> objIndexer;
+
+    private final ClassHierarchy hierarchy = World.get().getClassHierarchy();
+
+    // receiver type -> method reference -> target (null if none)
+    private final Map<Type, Map<MethodRef, JMethod>> targets = new HashMap<>();
+
+    private final Map<Invoke, CallSite> callSites = new HashMap<>();
+
+    public DispatchCache(Function<Integer, Type> typeOf, Indexer<Integer> objIndexer) {
+        this.typeOf = typeOf;
+        this.objIndexer = objIndexer;
+    }
+
+    /**
+     * Find the concrete implementation of methodRef invoked on an object of objType
+     * @return null if objType cannot be dispatched or has no concrete implementation
+     */
+    public JMethod dispatch(Type objType, MethodRef methodRef) {
+        if (objType == null) {
+            return null;
+        }
+        Map<MethodRef, JMethod> typeTargets = targets.computeIfAbsent(
+                objType, k -> new HashMap<>());
+        if (typeTargets.containsKey(methodRef)) {
+            return typeTargets.get(methodRef);
+        }
+        JMethod target = hierarchy.dispatch(objType, methodRef);
+        if (target != null && target.isAbstract()) {
+            target = null;
+        }
+        typeTargets.put(methodRef, target);
+        return target;
+    }
+
+    /**
+     * Dispatch invoke on the receivers that this call site has not seen yet.
+     * @return the targets that are new to this call site
+     */
+    public Set<JMethod> resolveNew(Invoke invoke, PointsToSet receivers) {
+        CallSite site = callSites.computeIfAbsent(invoke, k -> new CallSite());
+        PointsToSet newReceivers = site.receivers.addAllDiff(receivers);
+        if (newReceivers.isEmpty()) {
+            return Set.of();
+        }
+        MethodRef methodRef = invoke.getMethodRef();
+        Set<JMethod> newTargets = new LinkedHashSet<>();
+        for (Integer objId : newReceivers) {
+            JMethod target = dispatch(typeOf.apply(objId), methodRef);
+            if (target != null && site.targets.add(target)) {
+                newTargets.add(target);
+            }
+        }
+        return newTargets;
+    }
+
+    /**
+     * Dispatch invoke on receivers, reusing the results of earlier calls.
+     * @return all targets resolved at this call site so far
+     */
+    public Set<JMethod> resolve(Invoke invoke, PointsToSet receivers) {
+        resolveNew(invoke, receivers);
+        return getTargets(invoke);
+    }
+
+    /** Get all targets resolved at invoke so far */
+    public Set<JMethod> getTargets(Invoke invoke) {
+        CallSite site = callSites.get(invoke);
+        return site != null ? Collections.unmodifiableSet(site.targets) : Set.of();
+    }
+
+    /** Receivers already dispatched at one call site, and the targets they resolved to */
+    private class CallSite {
+        private final PointsToSet receivers = new PointsToSet(objIndexer);
+        private final Set<JMethod> targets = new LinkedHashSet<>();
+    }
+}
@@ -0,0 +1,31 @@
+package pku;
+
+import pascal.taie.language.classes.JField;
+import pascal.taie.util.Indexer;
+
+/**
+ * Pointer flow graph node for a field of an object, i.e., (O, f).
+ */
+public class FieldPtr extends Pointer {
+    private final int objId;
+    private final JField field;
+
+    FieldPtr(int objId, JField field, Indexer<Integer> objIndexer) {
+        super(objIndexer);
+        this.objId = objId;
+        this.field = field;
+    }
+
+    public int getObjId() {
+        return objId;
+    }
+
+    public JField getField() {
+        return field;
+    }
+
+    @Override
+    public String toString() {
+        return "(" + objId + ", " + field.getName() + ")";
+    }
+}
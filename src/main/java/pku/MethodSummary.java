@@ -0,0 +1,158 @@
+package pku;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import pascal.taie.analysis.dataflow.analysis.constprop.CPFact;
+import pascal.taie.analysis.dataflow.analysis.constprop.ConstantPropagation;
+import pascal.taie.analysis.dataflow.analysis.constprop.Value;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.CFGBuilder;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.ArrayAccess;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.LoadArray;
+import pascal.taie.ir.stmt.LoadField;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.ir.stmt.StoreArray;
+import pascal.taie.ir.stmt.StoreField;
+
+/**
+ * Summary of a method for inter-procedural analysis: its this variable,
+ * parameters, return variables and its invoke, load and store statements.
+ * Built once during preprocessing, so call sites never rescan the callee.
+ *
+ * The summary also keeps the slot of each array load and store, see
+ * {@link ArrayIndexPtr}: the index if {@link ConstantPropagation} finds it
+ * constant before the access on all paths, otherwise the any slot.
+ */
+public class MethodSummary {
+
+    /** Builds CFGs for constant propagation, without exceptional edges */
+    private static final CFGBuilder CFG_BUILDER = new CFGBuilder(
+            AnalysisConfig.of(CFGBuilder.ID, "exception", null, "dump", false));
+
+    private final Var thisVar;
+
+    private final List<Var> params;
+
+    private final List<Var> returnVars;
+
+    /** Whether the method may return this */
+    private final boolean returnsThis;
+
+    private final List<Invoke> invokes = new ArrayList<>();
+
+    /** Field and array loads */
+    private final List<Stmt> loads = new ArrayList<>();
+
+    /** Field and array stores */
+    private final List<Stmt> stores = new ArrayList<>();
+
+    /** Slot of each array access by statement index, or null without array accesses */
+    private int[] arrayIndexes;
+
+    MethodSummary(IR ir) {
+        thisVar = ir.getThis();
+        params = ir.getParams();
+        returnVars = ir.getReturnVars();
+        returnsThis = thisVar != null && returnVars.contains(thisVar);
+    }
+
+    /** Build the summary of a method that was not preprocessed */
+    static MethodSummary of(IR ir) {
+        MethodSummary summary = new MethodSummary(ir);
+        ir.forEach(summary::addStmt);
+        summary.computeArrayIndexes(ir);
+        return summary;
+    }
+
+    /** Record stmt if it is an invoke, load or store */
+    void addStmt(Stmt stmt) {
+        if (stmt instanceof Invoke invoke) {
+            invokes.add(invoke);
+        } else if (stmt instanceof LoadField || stmt instanceof LoadArray) {
+            loads.add(stmt);
+        } else if (stmt instanceof StoreField || stmt instanceof StoreArray) {
+            stores.add(stmt);
+        }
+    }
+
+    /**
+     * Computes the slots of the array accesses of ir, after all of its
+     * statements are added. Constant propagation runs only for methods
+     * with array accesses, and its result is reused if ir already has one.
+     */
+    void computeArrayIndexes(IR ir) {
+        if (loads.stream().noneMatch(LoadArray.class::isInstance)
+                && stores.stream().noneMatch(StoreArray.class::isInstance)) {
+            return;
+        }
+        DataflowResult<Stmt, CPFact> constants = ir.getResult(ConstantPropagation.ID);
+        if (constants == null) {
+            CFG<Stmt> cfg = ir.getResult(CFGBuilder.ID);
+            if (cfg == null) {
+                cfg = CFG_BUILDER.analyze(ir);
+            }
+            constants = pascal.taie.analysis.dataflow.solver.Solver.<Stmt, CPFact>getSolver()
+                    .solve(new ConstantPropagation.Analysis(cfg, true));
+        }
+        arrayIndexes = new int[ir.getStmts().size()];
+        Arrays.fill(arrayIndexes, ArrayIndexPtr.ANY_INDEX);
+        for (Stmt stmt : ir) {
+            ArrayAccess access = stmt instanceof LoadArray load ? load.getArrayAccess()
+                    : stmt instanceof StoreArray store ? store.getArrayAccess() : null;
+            if (access != null) {
+                CPFact fact = constants.getInFact(stmt);
+                Value index = fact != null ? fact.get(access.getIndex()) : null;
+                if (index != null && index.isConstant()) {
+                    arrayIndexes[stmt.getIndex()] = index.getConstant();
+                }
+            }
+        }
+    }
+
+    /**
+     * @param access an array load or store of this method
+     * @return the slot it accesses, see {@link ArrayIndexPtr}
+     */
+    public int getArrayIndex(Stmt access) {
+        return arrayIndexes[access.getIndex()];
+    }
+
+    /**
+     * @return this variable, or null for static methods
+     */
+    public Var getThis() {
+        return thisVar;
+    }
+
+    public List<Var> getParams() {
+        return params;
+    }
+
+    public List<Var> getReturnVars() {
+        return returnVars;
+    }
+
+    public boolean returnsThis() {
+        return returnsThis;
+    }
+
+    public List<Invoke> getInvokes() {
+        return Collections.unmodifiableList(invokes);
+    }
+
+    public List<Stmt> getLoads() {
+        return Collections.unmodifiableList(loads);
+    }
+
+    public List<Stmt> getStores() {
+        return Collections.unmodifiableList(stores);
+    }
+}
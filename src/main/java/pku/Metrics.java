@@ -0,0 +1,235 @@
+package pku;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+import pascal.taie.util.Timer;
+
+/**
+ * Metrics of a pku-pta run, written as JSON by {@link #writeJson}:
+ * the time of each phase, counters of the solvers, the time spent in the
+ * handlers of each kind of statement, and histograms of points-to set sizes.
+ *
+ * Counters are {@link LongAdder}s, so the threads of a parallel solver
+ * count without contention. Handler times are only measured if metrics are
+ * enabled; {@link #DISABLED} ignores everything but the phases, which are
+ * always committed as JFR events, see {@link PhaseEvent}, and are only
+ * recorded when a flight recording is running.
+ */
+public class Metrics {
+
+    /** Metrics of runs that do not write them */
+    public static final Metrics DISABLED = new Metrics(false);
+
+    private static final float NANOS_PER_SECOND = 1e9F;
+
+    public enum Counter {
+        /** Work list entries processed by the pfg solver */
+        WORK_LIST_ENTRIES("workListEntries"),
+        /** Propagations that add objects to a points-to set */
+        PROPAGATIONS("propagations"),
+        /** Objects added to points-to sets by propagations */
+        PROPAGATED_OBJECTS("propagatedObjects"),
+        /** Edges added to the pointer flow graph */
+        POINTER_FLOW_EDGES("pointerFlowEdges"),
+        /** Context-sensitive call edges */
+        CALL_EDGES("callEdges"),
+        /** Methods analyzed, once per context */
+        METHODS("methods"),
+        /** Pointer flow graph cycles collapsed into one node */
+        COLLAPSED_CYCLES("collapsedCycles"),
+        /**
+         * Passes until the fixed point: rounds over all methods of the
+         * iterative solver, rounds of the parallel pfg solver, or work
+         * list runs of the sequential pfg solver
+         */
+        ITERATIONS("iterations"),
+        /** Queries answered by the demand solver */
+        QUERIES("queries");
+
+        private final String key;
+
+        Counter(String key) {
+            this.key = key;
+        }
+    }
+
+    private final boolean enabled;
+
+    private final Map<String, Timer> phases = new LinkedHashMap<>();
+
+    private final LongAdder[] counters = new LongAdder[Counter.values().length];
+
+    /** Statement kind -> nanoseconds in its handlers */
+    private final Map<String, LongAdder> handlerNanos = new ConcurrentHashMap<>();
+
+    /** Statement kind -> calls of its handlers */
+    private final Map<String, LongAdder> handlerCalls = new ConcurrentHashMap<>();
+
+    /** Name -> size bucket -> number of points-to sets */
+    private final Map<String, Map<String, Long>> histograms = new LinkedHashMap<>();
+
+    /** Single values describing the run */
+    private final Map<String, Object> values = new LinkedHashMap<>();
+
+    public Metrics() {
+        this(true);
+    }
+
+    private Metrics(boolean enabled) {
+        this.enabled = enabled;
+        for (int i = 0; i < counters.length; ++i) {
+            counters[i] = new LongAdder();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Starts a phase, which ends when the returned phase is closed.
+     * Phases of the same name add up.
+     */
+    public Phase phase(String name) {
+        Timer timer = null;
+        if (enabled) {
+            timer = phases.computeIfAbsent(name, Timer::new);
+            timer.start();
+        }
+        return new Phase(name, timer);
+    }
+
+    public void increment(Counter counter) {
+        if (enabled) {
+            counters[counter.ordinal()].increment();
+        }
+    }
+
+    /** Adds the value of amount, which is only computed if metrics are enabled */
+    public void add(Counter counter, LongSupplier amount) {
+        if (enabled) {
+            counters[counter.ordinal()].add(amount.getAsLong());
+        }
+    }
+
+    /**
+     * @return the start time of a handler for {@link #endHandler},
+     *         or 0 if metrics are disabled
+     */
+    public long startHandler() {
+        return enabled ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Adds the time since start to the handlers of a kind of statements.
+     * @return the end time, to start the next handler from
+     */
+    public long endHandler(String kind, long start) {
+        if (!enabled) {
+            return 0;
+        }
+        long end = System.nanoTime();
+        handlerNanos.computeIfAbsent(kind, k -> new LongAdder()).add(end - start);
+        handlerCalls.computeIfAbsent(kind, k -> new LongAdder()).increment();
+        return end;
+    }
+
+    /**
+     * Adds the size of a points-to set to histogram name,
+     * in buckets of powers of two.
+     */
+    public void addSize(String name, int size) {
+        if (enabled) {
+            String bucket;
+            if (size < 2) {
+                bucket = Integer.toString(size);
+            } else {
+                int low = Integer.highestOneBit(size);
+                bucket = low + "-" + (2 * low - 1);
+            }
+            histograms.computeIfAbsent(name, k -> new LinkedHashMap<>())
+                    .merge(bucket, 1L, Long::sum);
+        }
+    }
+
+    /** Sets a single value describing the run, e.g., an option or a total */
+    public void put(String name, Object value) {
+        if (enabled) {
+            values.put(name, value);
+        }
+    }
+
+    public void writeJson(Path file) throws IOException {
+        Map<String, Object> json = new LinkedHashMap<>(values);
+        Map<String, Float> phaseSeconds = new LinkedHashMap<>();
+        phases.forEach((name, timer) -> phaseSeconds.put(name, timer.inSecond()));
+        json.put("phases", phaseSeconds);
+        Map<String, Long> counterValues = new LinkedHashMap<>();
+        for (Counter counter : Counter.values()) {
+            counterValues.put(counter.key, counters[counter.ordinal()].sum());
+        }
+        json.put("counters", counterValues);
+        Map<String, Map<String, Object>> handlers = new TreeMap<>();
+        handlerNanos.forEach((kind, nanos) -> handlers.put(kind, Map.of(
+                "calls", handlerCalls.get(kind).sum(),
+                "seconds", nanos.sum() / NANOS_PER_SECOND)));
+        json.put("handlers", handlers);
+        Map<String, Map<String, Long>> sortedHistograms = new LinkedHashMap<>();
+        histograms.forEach((name, buckets) -> {
+            Map<String, Long> sorted = new TreeMap<>((b1, b2) -> Integer.compare(
+                    Integer.parseInt(b1.split("-")[0]), Integer.parseInt(b2.split("-")[0])));
+            sorted.putAll(buckets);
+            sortedHistograms.put(name, sorted);
+        });
+        json.put("histograms", sortedHistograms);
+        new ObjectMapper().writerWithDefaultPrettyPrinter().writeValue(file.toFile(), json);
+    }
+
+    /** A running phase, see {@link #phase} */
+    public static class Phase implements AutoCloseable {
+
+        private final Timer timer;
+
+        private final PhaseEvent event = new PhaseEvent();
+
+        private Phase(String name, Timer timer) {
+            this.timer = timer;
+            event.phase = name;
+            event.begin();
+        }
+
+        @Override
+        public void close() {
+            if (timer != null) {
+                timer.stop();
+            }
+            event.commit();
+        }
+    }
+
+    /** JFR event of a phase of pku-pta */
+    @Name("pku.Phase")
+    @Label("pku-pta Phase")
+    @Category("pku-pta")
+    @Description("A phase of a pku-pta run, e.g., preprocessing or solving")
+    static class PhaseEvent extends Event {
+
+        @Label("Phase")
+        String phase;
+    }
+}
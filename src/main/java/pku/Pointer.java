@@ -0,0 +1,78 @@
+package pku;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.function.Predicate;
+
+import pascal.taie.util.Indexer;
+
+/**
+ * A node of the pointer flow graph.
+ *
+ * Each pointer owns its points-to set and the set of pointers that
+ * its objects flow to (its successors in the graph). Pointers merged
+ * into a cycle share the points-to set of the cycle's representative.
+ */
+public abstract class Pointer {
+
+    private PointsToSet pts;
+
+    private final Set<Pointer> successors = new HashSet<>();
+
+    /** Position of this pointer in the creation order of its graph */
+    private int ordinal;
+
+    protected Pointer(Indexer<Integer> objIndexer) {
+        pts = new PointsToSet(objIndexer);
+    }
+
+    /**
+     * @return the points-to set of this pointer.
+     */
+    public PointsToSet getPts() {
+        return pts;
+    }
+
+    /**
+     * @return the position of this pointer in the creation order of its
+     *         pointer flow graph, which gives the solver a deterministic order.
+     */
+    public int getOrdinal() {
+        return ordinal;
+    }
+
+    void setOrdinal(int ordinal) {
+        this.ordinal = ordinal;
+    }
+
+    /**
+     * @return the pointers that objects of this pointer flow to.
+     */
+    public Set<Pointer> getSuccessors() {
+        return Collections.unmodifiableSet(successors);
+    }
+
+    /**
+     * Adds an edge this -> target.
+     * @return true if the edge is new
+     */
+    boolean addSuccessor(Pointer target) {
+        return successors.add(target);
+    }
+
+    /** Shares the points-to set of rep, after this pointer is merged into rep */
+    void sharePts(Pointer rep) {
+        pts = rep.pts;
+    }
+
+    /** Moves the outgoing edges of this pointer to rep */
+    void moveSuccessorsTo(Pointer rep) {
+        rep.successors.addAll(successors);
+        successors.clear();
+    }
+
+    void removeSuccessorIf(Predicate<Pointer> filter) {
+        successors.removeIf(filter);
+    }
+}
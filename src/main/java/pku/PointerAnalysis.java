@@ -1,5 +1,8 @@
 package pku;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedList;
@@ -7,32 +10,38 @@ import java.util.List;
 import java.util.Map;
 import java.util.Queue;
 import java.util.Set;
+import java.util.TreeMap;
 import java.util.TreeSet;
+import java.util.function.Function;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 
 import pascal.taie.World;
+import pascal.taie.analysis.graph.callgraph.CallGraph;
 import pascal.taie.config.AnalysisConfig;
+import pascal.taie.config.ConfigException;
 import pascal.taie.ir.IR;
 import pascal.taie.ir.exp.FieldAccess;
 import pascal.taie.ir.exp.InstanceFieldAccess;
-import pascal.taie.ir.exp.IntLiteral;
 import pascal.taie.ir.exp.InvokeExp;
 import pascal.taie.ir.exp.InvokeInstanceExp;
-import pascal.taie.ir.exp.Literal;
 import pascal.taie.ir.exp.Var;
-import pascal.taie.ir.stmt.AssignLiteral;
 import pascal.taie.ir.stmt.Cast;
 import pascal.taie.ir.stmt.Copy;
 import pascal.taie.ir.stmt.Invoke;
 import pascal.taie.ir.stmt.LoadArray;
 import pascal.taie.ir.stmt.LoadField;
 import pascal.taie.ir.stmt.New;
-import pascal.taie.ir.stmt.Return;
 import pascal.taie.ir.stmt.Stmt;
 import pascal.taie.ir.stmt.StoreArray;
 import pascal.taie.ir.stmt.StoreField;
-import pascal.taie.language.classes.JClass;
+import pascal.taie.language.classes.JField;
 import pascal.taie.language.classes.JMethod;
 import pascal.taie.language.type.Type;
+import pascal.taie.util.Indexer;
+import pascal.taie.util.SimpleIndexer;
+import pascal.taie.util.Timer;
 
 /**
  * Pointer Analysis Implementation
@@ -40,37 +49,149 @@ import pascal.taie.language.type.Type;
  */
 public class PointerAnalysis extends PointerAnalysisTrivial {
     public static final String ID = "pku-pta";
-    
-    // Map from allocation ID to object type
-    private Map<Integer, Type> allocIdToType = new HashMap<>();
+
+    private static final Logger logger = LogManager.getLogger(PointerAnalysis.class);
+
+    /** Solver mode that propagates along an explicit pointer flow graph */
+    private static final String PFG_SOLVER = "pfg";
+
+    /** Solver mode that re-analyzes every method until nothing changes */
+    private static final String ITERATIVE_SOLVER = "iterative";
+
+    /** Solver mode that answers the tests as demand-driven queries, see {@link DemandSolver} */
+    private static final String DEMAND_SOLVER = "demand";
+
+    private final String solver;
+
+    /** Context sensitivity variant, e.g. ci, 2-call, 1-obj, 1-type */
+    private final String cs;
+
+    /** Maximum number of contexts per method in context-sensitive mode */
+    private final int maxContexts;
+
+    /** Time limit in seconds, or {@link Budget#UNLIMITED} */
+    private final int timeLimit;
+
+    /** Work limit of the solver, or {@link Budget#UNLIMITED} */
+    private final int workLimit;
+
+    /** Work limit of each query of the demand solver */
+    private final int queryLimit;
+
+    /**
+     * File of the snapshot for incremental runs, or null. Only the demand
+     * solver supports snapshots, see {@link Snapshot} for the limitations.
+     */
+    private final Path snapshotFile;
+
+    /** File of the result in the binary format of {@link ResultWriter}, or null */
+    private final Path binaryResultFile;
+
+    /** Number of threads of the pfg solver */
+    private final int threads;
+
+    /** Whether to also run the sequential pfg solver, to report the speedup of threads */
+    private final boolean compareSequential;
+
+    /** File to write the metrics of the run to as JSON, or null */
+    private final Path metricsFile;
+
+    /** Metrics of the current run */
+    private Metrics metrics = Metrics.DISABLED;
+
+    // Memoized virtual dispatch of the iterative solver
+    private DispatchCache dispatchCache;
 
     public PointerAnalysis(AnalysisConfig config) {
         super(config);
+        solver = getOptions().getString("solver");
+        if (!PFG_SOLVER.equals(solver) && !ITERATIVE_SOLVER.equals(solver)
+                && !DEMAND_SOLVER.equals(solver)) {
+            throw new ConfigException("Unknown pku-pta solver: " + solver);
+        }
+        cs = getOptions().getString("cs");
+        if (!cs.equals("ci") && !PFG_SOLVER.equals(solver)) {
+            throw new ConfigException("Context sensitivity " + cs
+                    + " requires the " + PFG_SOLVER + " solver");
+        }
+        maxContexts = getOptions().getInt("max-contexts");
+        if (maxContexts < 1) {
+            throw new ConfigException("max-contexts must be positive, given: " + maxContexts);
+        }
+        timeLimit = getOptions().getInt("time-limit");
+        workLimit = getOptions().getInt("work-limit");
+        queryLimit = getOptions().getInt("query-limit");
+        String snapshot = getOptions().getString("snapshot");
+        if (snapshot != null && !DEMAND_SOLVER.equals(solver)) {
+            // the pfg solver records no footprints of tests to reuse them by
+            throw new ConfigException("Snapshots require the " + DEMAND_SOLVER
+                    + " solver, the " + solver + " solver always analyzes the whole program");
+        }
+        snapshotFile = snapshot != null ? Path.of(snapshot) : null;
+        String binaryResult = getOptions().getString("binary-result");
+        binaryResultFile = binaryResult != null ? Path.of(binaryResult) : null;
+        threads = getOptions().getInt("threads");
+        if (threads < 1) {
+            throw new ConfigException("threads must be positive, given: " + threads);
+        }
+        compareSequential = getOptions().getBoolean("compare-sequential");
+        String metricsPath = getOptions().getString("metrics");
+        metricsFile = metricsPath != null ? Path.of(metricsPath) : null;
     }
 
     @Override
     public PointerAnalysisResult analyze() {
+        PointerAnalysisResult result = analyze(getEntryMethods(), false);
+        try (Metrics.Phase phase = metrics.phase("dump")) {
+            dump(result);
+            if (binaryResultFile != null) {
+                try {
+                    ResultWriter.writeBinary(result, binaryResultFile);
+                } catch (IOException e) {
+                    logger.warn("Failed to dump {}", binaryResultFile, e);
+                }
+            }
+        }
+        if (metricsFile != null) {
+            try {
+                metrics.writeJson(metricsFile);
+            } catch (IOException e) {
+                logger.warn("Failed to write pku-pta metrics {}", metricsFile, e);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Analyze the program from the main method of one of several classes
+     * loaded in the same world, see {@link BatchMain}. Only tests in methods
+     * reachable from entry are reported, as test IDs of the classes may clash.
+     */
+    public PointerAnalysisResult analyze(JMethod entry) {
+        if (!PFG_SOLVER.equals(solver)) {
+            throw new ConfigException("Analyzing a given entry requires the "
+                    + PFG_SOLVER + " solver");
+        }
+        return analyze(List.of(entry), true);
+    }
+
+    private PointerAnalysisResult analyze(Collection<JMethod> entries,
+                                          boolean onlyReachableTests) {
         PointerAnalysisResult result = new PointerAnalysisResult();
-        PreprocessResult preprocess = new PreprocessResult();
-        World world = World.get();
+        metrics = metricsFile != null ? new Metrics() : Metrics.DISABLED;
+        metrics.put("analysis", ID);
+        metrics.put("solver", solver);
+        metrics.put("cs", cs);
+        metrics.put("threads", threads);
+        // Step 1: Collect preprocessing of all methods
+        PreprocessResult preprocess;
+        // the methods are preprocessed in parallel by Preprocess before this analysis,
+        // this phase only merges their results
+        try (Metrics.Phase phase = metrics.phase("collect-preprocess")) {
+            preprocess = preprocess();
+        }
+        metrics.put("preprocessSeconds", preprocess.getPreprocessSeconds());
 
-        // Step 1: Preprocess all methods and build allocation ID to type mapping
-        world.getClassHierarchy().applicationClasses().forEach(jclass -> {
-            jclass.getDeclaredMethods().forEach(method -> {
-                if (!method.isAbstract() && !method.isNative()) {
-                    IR ir = method.getIR();
-                    if (ir != null) {
-                        preprocess.analysis(ir);
-                    }
-                }
-            });
-        });
-        
-        // Build allocation ID to type mapping
-        preprocess.obj_ids.forEach((newStmt, objId) -> {
-            Type objType = newStmt.getRValue().getType();
-            allocIdToType.put(objId, objType);
-        });
             // 打印对象分配信息
         //System.out.println("=== Object Allocation Info ===");
         //preprocess.obj_ids.forEach((stmt, objId) -> {
@@ -81,46 +202,263 @@ public class PointerAnalysis extends PointerAnalysisTrivial {
         //});
         //System.out.println("=== End Object Allocation Info ===");
 
-        // Step 2: Create managers
-        PointsToSetManager ptsManager = new PointsToSetManager();
-        FieldPtsManager fieldPtsManager = new FieldPtsManager();
+        // Step 2 & 3: Solve points-to sets over dense indexes of allocation IDs
+        Indexer<Integer> objIndexer = new SimpleIndexer<>(
+                new TreeSet<>(preprocess.obj_ids.values()));
+        Budget budget = new Budget(timeLimit, workLimit);
+        budget.start();
+        Function<Var, PointsToSet> ptsOf = null;
+        boolean complete = false;
+        boolean solveWholeProgram = PFG_SOLVER.equals(solver);
+        DemandSolver demandSolver = null;
+        Snapshot snapshot = null;
+        Map<Integer, TreeSet<Integer>> reusedResults = new HashMap<>();
+        if (DEMAND_SOLVER.equals(solver)) {
+            try (Metrics.Phase phase = metrics.phase("query")) {
+                demandSolver = new DemandSolver(preprocess, objIndexer, budget, queryLimit);
+                demandSolver.setMetrics(metrics);
+                Map<Integer, Var> queries = new TreeMap<>(preprocess.test_pts);
+                if (snapshotFile != null) {
+                    snapshot = Snapshot.ofWorld();
+                    reusedResults = reuseSnapshot(snapshot, queries);
+                    metrics.put("reusedTests", reusedResults.size());
+                }
+                complete = queries.values().stream().allMatch(demandSolver::query);
+            }
+            ptsOf = demandSolver::getPts;
+            // a query that exceeds its own limit falls back to the whole program
+            solveWholeProgram = !complete && !budget.isExhausted();
+            if (solveWholeProgram) {
+                logger.info("pku-pta query exceeds its limit ({}),"
+                        + " solving the whole program", queryLimit);
+                if (snapshotFile != null) {
+                    logger.info("pku-pta: no snapshot is saved for a whole-program run");
+                }
+                reusedResults.clear();
+            }
+        }
+        if (solveWholeProgram) {
+            Solver pfgSolver = new Solver(preprocess, objIndexer, cs, maxContexts, budget,
+                    threads);
+            pfgSolver.setMetrics(metrics);
+            Timer timer = new Timer("pku-pta solver");
+            timer.start();
+            try (Metrics.Phase phase = metrics.phase("solve")) {
+                complete = pfgSolver.solve(entries);
+            }
+            timer.stop();
+            if (metrics.isEnabled()) {
+                pfgSolver.getPointerFlowGraph().getVarPtrs().forEach(ptr ->
+                        metrics.addSize("varPtsSizes", ptr.getPts().size()));
+            }
+            ptsOf = pfgSolver::getPts;
+            result.setCallGraph(pfgSolver.getCallGraph());
+            if (threads > 1) {
+                logger.info("pku-pta solver takes {}s with {} threads",
+                        timer.inSecond(), threads);
+                if (compareSequential && complete) {
+                    compareSequential(preprocess, objIndexer, entries,
+                            pfgSolver, timer.inSecond());
+                }
+            }
+        } else if (ITERATIVE_SOLVER.equals(solver)) {
+            PointsToSetManager ptsManager = new PointsToSetManager(objIndexer);
+            try (Metrics.Phase phase = metrics.phase("solve")) {
+                complete = solveIteratively(preprocess, objIndexer, ptsManager, budget);
+            }
+            ptsOf = ptsManager::getPts;
+        }
+        budget.stop();
+        metrics.put("complete", complete);
+        metrics.put("work", budget.getWork());
+
+        // Step 4: Extract results
+        Map<Integer, Var> tests;
+        TreeSet<Integer> allObjs = new TreeSet<>();
+        try (Metrics.Phase phase = metrics.phase("extract")) {
+            tests = onlyReachableTests
+                    ? collectTests(preprocess, result.getCallGraph()) : preprocess.test_pts;
+            if (!complete) {
+                // the fixed point was not reached, so any points-to set may be missing objects
+                logger.warn("pku-pta stops early as it reaches its budget"
+                        + " (time limit: {}s, work limit: {}, work done: {}),"
+                        + " falling back to the trivial result for tests {}",
+                        timeLimit, workLimit, budget.getWork(),
+                        new TreeSet<>(tests.keySet()));
+            }
+            for (Integer objId : preprocess.obj_ids.values()) {
+                if (objId > 0) {
+                    allObjs.add(objId);
+                }
+            }
+            for (Map.Entry<Integer, Var> test : tests.entrySet()) {
+                int testId = test.getKey();
+                if (!complete) {
+                    result.put(testId, new TreeSet<>(allObjs));
+                    result.addDegradedTest(testId);
+                    continue;
+                }
+                if (reusedResults.containsKey(testId)) {
+                    result.put(testId, new TreeSet<>(reusedResults.get(testId)));
+                    continue;
+                }
+                PointsToSet pts = ptsOf.apply(test.getValue());
+                // Filter out auto-generated negative IDs (unlabeled objects)
+                TreeSet<Integer> filteredPts = new TreeSet<>();
+                for (Integer objId : pts) {
+                    if (objId > 0) {  // Only include explicitly labeled objects
+                        filteredPts.add(objId);
+                    }
+                }
+                result.put(testId, filteredPts);
+            }
+        }
+        metrics.put("objects", allObjs.size());
+        metrics.put("tests", result.size());
+        result.values().forEach(pts -> metrics.addSize("testPtsSizes", pts.size()));
+        if (snapshot != null && complete && !solveWholeProgram) {
+            saveSnapshot(snapshot, result, tests, reusedResults, demandSolver);
+        }
+        return result;
+    }
+
+    /**
+     * Takes the results of the tests that are not affected by the changes
+     * since the snapshot of the previous run, if there is one.
+     * @param current snapshot of this run, which gets the reused results
+     * @param queries tests to query, from which the reused tests are removed
+     * @return the reused results
+     */
+    private Map<Integer, TreeSet<Integer>> reuseSnapshot(Snapshot current,
+                                                         Map<Integer, Var> queries) {
+        Map<Integer, TreeSet<Integer>> reused = new HashMap<>();
+        Snapshot previous = Snapshot.load(snapshotFile);
+        if (previous == null) {
+            return reused;
+        }
+        Set<String> changed = previous.getChangedMethods(current);
+        if (changed == null) {
+            logger.info("pku-pta: class headers changed since {}, querying all tests",
+                    snapshotFile);
+            return reused;
+        }
+        for (Integer testId : List.copyOf(queries.keySet())) {
+            TreeSet<Integer> result = previous.getReusableResult(testId, changed, current);
+            if (result != null) {
+                reused.put(testId, result);
+                current.putTest(testId, result, previous.getFootprint(testId));
+                queries.remove(testId);
+            }
+        }
+        logger.info("pku-pta: {} methods changed since {}, reusing {} tests, querying {} tests",
+                changed.size(), snapshotFile, reused.size(), queries.size());
+        return reused;
+    }
+
+    /** Saves the results of this run and the footprints of the queried tests */
+    private void saveSnapshot(Snapshot snapshot, PointerAnalysisResult result,
+                              Map<Integer, Var> tests, Map<Integer, TreeSet<Integer>> reused,
+                              DemandSolver demandSolver) {
+        result.forEach((testId, pts) -> {
+            if (!reused.containsKey(testId)) {
+                snapshot.putTest(testId, pts, demandSolver.getFootprint(tests.get(testId)));
+            }
+        });
+        try {
+            snapshot.save(snapshotFile);
+        } catch (IOException e) {
+            logger.warn("Failed to save pku-pta snapshot {}: {}", snapshotFile, e.toString());
+        }
+    }
 
-        // Step 3: Analyze each method
+    /**
+     * Solves the program again with the sequential pfg solver,
+     * and reports the speedup of the parallel solver and whether
+     * the points-to sets of the tests are the same.
+     */
+    private void compareSequential(PreprocessResult preprocess, Indexer<Integer> objIndexer,
+                                   Collection<JMethod> entries, Solver parallelSolver,
+                                   float parallelTime) {
+        Solver sequentialSolver = new Solver(preprocess, objIndexer, cs, maxContexts,
+                Budget.unlimited());
+        Timer timer = new Timer("pku-pta sequential solver");
+        timer.start();
+        sequentialSolver.solve(entries);
+        timer.stop();
+        logger.info("pku-pta sequential solver takes {}s, speedup of {} threads: {}",
+                timer.inSecond(), threads,
+                String.format("%.2f", timer.inSecond() / Math.max(parallelTime, 0.001f)));
+        new TreeMap<>(preprocess.test_pts).forEach((testId, var) -> {
+            PointsToSet parallelPts = parallelSolver.getPts(var);
+            PointsToSet sequentialPts = sequentialSolver.getPts(var);
+            if (!parallelPts.containsAll(sequentialPts)
+                    || !sequentialPts.containsAll(parallelPts)) {
+                logger.warn("pku-pta test {}: parallel solver gives {}, sequential solver gives {}",
+                        testId, parallelPts, sequentialPts);
+            }
+        });
+    }
+
+    /**
+     * Collect the tests in reachable methods from the preprocessing result,
+     * so the methods are not analyzed again for each entry
+     */
+    private static Map<Integer, Var> collectTests(PreprocessResult preprocess,
+                                                  CallGraph<Invoke, JMethod> callGraph) {
+        Map<Integer, Var> tests = new HashMap<>();
+        preprocess.test_pts.forEach((testId, var) -> {
+            if (callGraph.contains(var.getMethod())) {
+                tests.put(testId, var);
+            }
+        });
+        return tests;
+    }
+
+    /**
+     * Re-analyzes all methods until no points-to set changes,
+     * or until the budget is exhausted.
+     * @return true if the fixed point is reached
+     */
+    private boolean solveIteratively(PreprocessResult preprocess, Indexer<Integer> objIndexer,
+                                     PointsToSetManager ptsManager, Budget budget) {
+        FieldPtsManager fieldPtsManager = new FieldPtsManager(objIndexer);
+        // Map from allocation ID to object type, only needed for the dispatch here
+        Map<Integer, Type> allocIdToType = new HashMap<>();
+        preprocess.obj_ids.forEach((newStmt, objId) ->
+                allocIdToType.put(objId, newStmt.getRValue().getType()));
+        dispatchCache = new DispatchCache(allocIdToType::get, objIndexer);
+
+        // Analyze each method
+        Set<JMethod> methods = getAllMethods();
         boolean changed;
-        int iterations = 0;
-        final int MAX_ITERATIONS = 5000;
 
         do {
             changed = false;
-            iterations++;
+            metrics.increment(Metrics.Counter.ITERATIONS);
 
             // Analyze all methods
-            for (JMethod method : getAllMethods()) {
+            for (JMethod method : methods) {
                 if (!method.isAbstract() && !method.isNative()) {
                     IR ir = method.getIR();
                     if (ir != null) {
-                        changed |= analyzeMethod(ir, preprocess, ptsManager, fieldPtsManager);
+                        changed |= analyzeMethod(ir, preprocess, ptsManager,
+                                fieldPtsManager, budget);
                     }
                 }
             }
 
-        } while (changed && iterations < MAX_ITERATIONS);
+        } while (changed && !budget.isExhausted());
 
-        // Step 4: Extract results
-        preprocess.test_pts.forEach((testId, var) -> {
-            Set<Integer> pts = ptsManager.getPts(var);
-            // Filter out auto-generated negative IDs (unlabeled objects)
-            TreeSet<Integer> filteredPts = new TreeSet<>();
-            for (Integer objId : pts) {
-                if (objId > 0) {  // Only include explicitly labeled objects
-                    filteredPts.add(objId);
-                }
-            }
-            result.put(testId, filteredPts);
-        });
+        return !changed;
+    }
 
-        dump(result);
-        return result;
+    /**
+     * Get entry methods of the on-the-fly analysis: the main method,
+     * or all application methods if no main class is given
+     */
+    private Collection<JMethod> getEntryMethods() {
+        JMethod main = World.get().getMainMethod();
+        return main != null ? List.of(main) : getAllMethods();
     }
 
     /** Get all application methods for inter-procedural analysis */
@@ -134,29 +472,30 @@ public class PointerAnalysis extends PointerAnalysisTrivial {
 
     /** Analyze a method with worklist until fixed point */
     private boolean analyzeMethod(IR ir, PreprocessResult preprocess,
-                                PointsToSetManager ptsManager, FieldPtsManager fieldPtsManager) {
+                                PointsToSetManager ptsManager, FieldPtsManager fieldPtsManager,
+                                Budget budget) {
         Queue<Stmt> worklist = new LinkedList<>(ir.getStmts());
-        int iterationCount = 0;
-        final int MAX_ITERATIONS = 5000;
         boolean changed = false;
 
-        // Track constant values for array index analysis
-        Map<Var, Literal> constantMap = new HashMap<>();
+        // Slots of the array accesses, computed in preprocessing
+        MethodSummary summary = preprocess.getSummary(ir.getMethod());
 
-        while (!worklist.isEmpty() && iterationCount < MAX_ITERATIONS) {
+        while (!worklist.isEmpty()) {
+            if (!budget.consume()) {
+                // unfinished statements may still change points-to sets
+                return true;
+            }
             Stmt stmt = worklist.poll();
             boolean stmtChanged = false;
+            long start = metrics.startHandler();
             
             // Debug: Log what statements we're processing
             // System.out.println("Processing: " + stmt.getClass().getSimpleName() + " - " + stmt);
 
             if (stmt instanceof New newStmt) {
                 stmtChanged = handleNew(newStmt, preprocess, ptsManager);
-            } else if (stmt instanceof AssignLiteral assignLit) {
-                // Track literal assignments for constant propagation
-                constantMap.put(assignLit.getLValue(), assignLit.getRValue());
             } else if (stmt instanceof Copy copyStmt) {
-                stmtChanged = handleCopy(copyStmt, ptsManager, constantMap);
+                stmtChanged = handleCopy(copyStmt, ptsManager);
             } else if (stmt instanceof Cast castStmt) {
                 // Handle type casts: x = (T) y
                 stmtChanged = handleCast(castStmt, ptsManager);
@@ -165,18 +504,18 @@ public class PointerAnalysis extends PointerAnalysisTrivial {
             } else if (stmt instanceof LoadField loadStmt) {
                 stmtChanged = handleLoadField(loadStmt, ptsManager, fieldPtsManager);
             } else if (stmt instanceof StoreArray storeStmt) {
-                stmtChanged = handleStoreArray(storeStmt, ptsManager, fieldPtsManager, constantMap);
+                stmtChanged = handleStoreArray(storeStmt, ptsManager, fieldPtsManager, summary);
             } else if (stmt instanceof LoadArray loadStmt) {
-                stmtChanged = handleLoadArray(loadStmt, ptsManager, fieldPtsManager, constantMap);
+                stmtChanged = handleLoadArray(loadStmt, ptsManager, fieldPtsManager, summary);
             } else if (stmt instanceof Invoke invokeStmt) {
                 stmtChanged = handleInvoke(invokeStmt, preprocess, ptsManager, fieldPtsManager);
             }
+            metrics.endHandler(stmt.getClass().getSimpleName(), start);
 
             if (stmtChanged) {
                 changed = true;
                 worklist.addAll(ir.getStmts());
             }
-            iterationCount++;
         }
 
         return changed;
@@ -188,16 +527,17 @@ public class PointerAnalysis extends PointerAnalysisTrivial {
         boolean changed = false;
 
         // Process argument passing from caller to callee
-        changed |= processArgumentPassing(invoke, ptsManager);
+        changed |= processArgumentPassing(invoke, preprocess, ptsManager);
 
         // Process return value from callee to caller
-        changed |= processReturnValue(invoke, ptsManager);
+        changed |= processReturnValue(invoke, preprocess, ptsManager);
 
         return changed;
     }
 
     /** Process argument passing from caller to callee */
-    private boolean processArgumentPassing(Invoke invoke, PointsToSetManager ptsManager) {
+    private boolean processArgumentPassing(Invoke invoke, PreprocessResult preprocess,
+                                           PointsToSetManager ptsManager) {
         boolean changed = false;
 
         // Get all possible target methods (handles virtual dispatch)
@@ -205,47 +545,25 @@ public class PointerAnalysis extends PointerAnalysisTrivial {
         InvokeExp invokeExp = invoke.getInvokeExp();
         
         for (JMethod targetMethod : targetMethods) {
-            if (targetMethod == null || targetMethod.isNative()) {
+            MethodSummary summary = preprocess.getSummary(targetMethod);
+            if (summary == null) {
                 continue;
             }
+            List<Var> params = summary.getParams();
 
-            IR targetIR = targetMethod.getIR();
-            if (targetIR == null) {
-                continue;
+            // Instance method call: handle this parameter
+            Var thisVar = summary.getThis();
+            if (invokeExp instanceof InvokeInstanceExp instanceExp && thisVar != null) {
+                PointsToSet basePointsTo = ptsManager.getPts(instanceExp.getBase());
+                changed |= ptsManager.addAllPointsTo(thisVar, basePointsTo);
             }
-            List<Var> params = targetIR.getParams();
-
-            if (!invoke.isStatic()) {
-                // Instance method call: handle this parameter
-                Var base = null;
-                Var thisVar = targetIR.getThis();
 
-                // Get base object for instance method call
-                if (invokeExp instanceof InvokeInstanceExp) {
-                    InvokeInstanceExp instanceExp = (InvokeInstanceExp) invokeExp;
-                    base = instanceExp.getBase();
-                }
-
-                if (base != null && thisVar != null) {
-                    Set<Integer> basePointsTo = ptsManager.getPts(base);
-                    changed |= ptsManager.addAllPointsTo(thisVar, basePointsTo);
-                }
-
-                // Pass other arguments
-                for (int i = 0; i < invokeExp.getArgs().size() && i < params.size(); i++) {
-                    Var arg = invokeExp.getArg(i);
-                    Var param = params.get(i);
-                    Set<Integer> argPointsTo = ptsManager.getPts(arg);
-                    changed |= ptsManager.addAllPointsTo(param, argPointsTo);
-                }
-            } else {
-                // Static method call: direct argument passing
-                for (int i = 0; i < invokeExp.getArgs().size() && i < params.size(); i++) {
-                    Var arg = invokeExp.getArg(i);
-                    Var param = params.get(i);
-                    Set<Integer> argPointsTo = ptsManager.getPts(arg);
-                    changed |= ptsManager.addAllPointsTo(param, argPointsTo);
-                }
+            // Pass arguments
+            for (int i = 0; i < invokeExp.getArgs().size() && i < params.size(); i++) {
+                Var arg = invokeExp.getArg(i);
+                Var param = params.get(i);
+                PointsToSet argPointsTo = ptsManager.getPts(arg);
+                changed |= ptsManager.addAllPointsTo(param, argPointsTo);
             }
         }
 
@@ -253,7 +571,8 @@ public class PointerAnalysis extends PointerAnalysisTrivial {
     }
 
     /** Process return value from callee to caller */
-    private boolean processReturnValue(Invoke invoke, PointsToSetManager ptsManager) {
+    private boolean processReturnValue(Invoke invoke, PreprocessResult preprocess,
+                                       PointsToSetManager ptsManager) {
         Var lhs = invoke.getLValue();
         if (lhs == null) {
             return false; // No return value
@@ -261,25 +580,25 @@ public class PointerAnalysis extends PointerAnalysisTrivial {
 
         // Get all possible target methods (handles virtual dispatch)
         Set<JMethod> targetMethods = resolveTargetMethods(invoke, ptsManager);
-        Set<Integer> allReturnPts = new HashSet<>();
+        PointsToSet allReturnPts = ptsManager.makePts();
         
         for (JMethod targetMethod : targetMethods) {
-            if (targetMethod == null || targetMethod.isNative()) {
+            MethodSummary summary = preprocess.getSummary(targetMethod);
+            if (summary == null) {
                 continue;
             }
 
-            // Analyze the return value of the target method
-            Set<Integer> returnPts = analyzeMethodReturnValue(targetMethod, ptsManager);
+            // Collect the return values of the target method
+            PointsToSet returnPts = ptsManager.makePts();
+            for (Var returnVar : summary.getReturnVars()) {
+                returnPts.addAll(ptsManager.getPts(returnVar));
+            }
 
             // Special handling for methods that return 'this'
-            if (returnPts.isEmpty() && !invoke.isStatic() && returnsThis(targetMethod)) {
+            if (returnPts.isEmpty() && summary.returnsThis()
+                    && invoke.getInvokeExp() instanceof InvokeInstanceExp instanceExp) {
                 // Use the base object of the call as return value
-                InvokeExp invokeExp = invoke.getInvokeExp();
-                if (invokeExp instanceof InvokeInstanceExp) {
-                    InvokeInstanceExp instanceExp = (InvokeInstanceExp) invokeExp;
-                    Var base = instanceExp.getBase();
-                    returnPts.addAll(ptsManager.getPts(base));
-                }
+                returnPts.addAll(ptsManager.getPts(instanceExp.getBase()));
             }
             
             allReturnPts.addAll(returnPts);
@@ -288,63 +607,6 @@ public class PointerAnalysis extends PointerAnalysisTrivial {
         return ptsManager.addAllPointsTo(lhs, allReturnPts);
     }
 
-    /** Analyze return value of a method */
-    private Set<Integer> analyzeMethodReturnValue(JMethod method, PointsToSetManager ptsManager) {
-        Set<Integer> returnPts = new HashSet<>();
-
-        if (method.isAbstract() || method.isNative()) {
-            return returnPts;
-        }
-
-        IR ir = method.getIR();
-        if (ir == null) {
-            return returnPts;
-        }
-
-        // Find return statements and collect return values
-        for (Stmt stmt : ir.getStmts()) {
-            if (stmt instanceof Return) {
-                Return returnStmt = (Return) stmt;
-                Var returnVar = returnStmt.getValue();
-                if (returnVar != null) {
-                    returnPts.addAll(ptsManager.getPts(returnVar));
-                }
-            }
-        }
-
-        return returnPts;
-    }
-
-    /** Check if a method returns this */
-    private boolean returnsThis(JMethod method) {
-        if (method.isAbstract() || method.isNative()) {
-            return false;
-        }
-
-        IR ir = method.getIR();
-        if (ir == null) {
-            return false;
-        }
-        Var thisVar = ir.getThis();
-
-        if (thisVar == null) {
-            return false; // Static methods don't have 'this'
-        }
-
-        // Check if method contains 'return this' statement
-        for (Stmt stmt : ir.getStmts()) {
-            if (stmt instanceof Return) {
-                Return returnStmt = (Return) stmt;
-                Var returnVar = returnStmt.getValue();
-                if (returnVar != null && returnVar.equals(thisVar)) {
-                    return true;
-                }
-            }
-        }
-
-        return false;
-    }
-
     /**
      * Resolve target methods for virtual dispatch
      * Handles interface calls and virtual method calls
@@ -370,23 +632,9 @@ public class PointerAnalysis extends PointerAnalysisTrivial {
         InvokeInstanceExp instanceExp = (InvokeInstanceExp) invokeExp;
         Var receiver = instanceExp.getBase();
         
-        // Get all possible receiver types from points-to set
-        Set<Integer> receiverPts = ptsManager.getPts(receiver);
-        
-        for (Integer objId : receiverPts) {
-            // Find the concrete type of this object
-            Type objType = findObjectType(objId);
-            if (objType != null) {
-                JClass objClass = World.get().getClassHierarchy().getClass(objType.getName());
-                if (objClass != null) {
-                    // Find concrete implementation of the method in this class
-                    JMethod concreteMethod = findConcreteMethod(objClass, declaredMethod);
-                    if (concreteMethod != null && !concreteMethod.isAbstract()) {
-                        targets.add(concreteMethod);
-                    }
-                }
-            }
-        }
+        // Only receivers that are new to this call site are dispatched
+        PointsToSet receiverPts = ptsManager.getPts(receiver);
+        targets.addAll(dispatchCache.resolve(invoke, receiverPts));
         
         // If no receivers found or no concrete implementations, fall back to declared method
         if (targets.isEmpty() && declaredMethod != null && !declaredMethod.isAbstract()) {
@@ -395,40 +643,6 @@ public class PointerAnalysis extends PointerAnalysisTrivial {
         
         return targets;
     }
-    
-    /**
-     * Find concrete implementation of a method in a class hierarchy
-     */
-    private JMethod findConcreteMethod(JClass clazz, JMethod declaredMethod) {
-        if (clazz == null || declaredMethod == null) {
-            return null;
-        }
-        
-        // Look for method in current class
-        JMethod method = clazz.getDeclaredMethod(declaredMethod.getSubsignature());
-        if (method != null && !method.isAbstract()) {
-            return method;
-        }
-        
-        // Look in superclass
-        JClass superClass = clazz.getSuperClass();
-        if (superClass != null) {
-            JMethod superMethod = findConcreteMethod(superClass, declaredMethod);
-            if (superMethod != null) {
-                return superMethod;
-            }
-        }
-        
-        return null;
-    }
-    
-    /**
-     * Find the type of an object given its allocation ID
-     * Uses the pre-built allocation ID to type mapping
-     */
-    private Type findObjectType(Integer objId) {
-        return allocIdToType.get(objId);
-    }
 
     /** Handle: var = new T() */
     private boolean handleNew(New stmt, PreprocessResult preprocess, PointsToSetManager ptsManager) {
@@ -440,19 +654,11 @@ public class PointerAnalysis extends PointerAnalysisTrivial {
         return false;
     }
 
-    /** Handle: a = b (also track constant assignments) */
-    private boolean handleCopy(Copy stmt, PointsToSetManager ptsManager, Map<Var, Literal> constantMap) {
+    /** Handle: a = b */
+    private boolean handleCopy(Copy stmt, PointsToSetManager ptsManager) {
         Var lhs = stmt.getLValue();
         Var rhs = stmt.getRValue();
-
-        // Track constant propagation for array indices
-        if (rhs.isConst()) {
-            constantMap.put(lhs, rhs.getConstValue());
-        } else if (constantMap.containsKey(rhs)) {
-            constantMap.put(lhs, constantMap.get(rhs));
-        }
-
-        Set<Integer> rhsPts = ptsManager.getPts(rhs);
+        PointsToSet rhsPts = ptsManager.getPts(rhs);
         return ptsManager.addAllPointsTo(lhs, rhsPts);
     }
 
@@ -460,7 +666,7 @@ public class PointerAnalysis extends PointerAnalysisTrivial {
     private boolean handleCast(Cast stmt, PointsToSetManager ptsManager) {
         Var lhs = stmt.getLValue();
         Var rhs = stmt.getRValue().getValue();
-        Set<Integer> rhsPts = ptsManager.getPts(rhs);
+        PointsToSet rhsPts = ptsManager.getPts(rhs);
         return ptsManager.addAllPointsTo(lhs, rhsPts);
     }
 
@@ -470,38 +676,22 @@ public class PointerAnalysis extends PointerAnalysisTrivial {
         Var value = stmt.getRValue();
 
         Var base = null;
-        String fieldName = lvalue.getFieldRef().getName();
+        JField field = lvalue.getFieldRef().resolve();
 
         if (lvalue instanceof InstanceFieldAccess instField) {
             base = instField.getBase();
         }
 
-        Set<Integer> valuePts = ptsManager.getPts(value);
+        PointsToSet valuePts = ptsManager.getPts(value);
         boolean changed = false;
 
-        // Field诊断：只对特定测试用例输出
-        //if (stmt.toString().contains("Field")) {
-            //System.out.println("FIELD_STORE: " + stmt);
-            //System.out.println("  Base: " + base + " -> " + (base != null ? ptsManager.getPts(base) : "null"));
-            //System.out.println("  Value: " + value + " -> " + valuePts);
-            //System.out.println("  Field: " + fieldName);
-        //}
-
         if (base != null) {
-            Set<Integer> basePts = ptsManager.getPts(base);
+            PointsToSet basePts = ptsManager.getPts(base);
             for (Integer objId : basePts) {
-                changed |= fieldPtsManager.addFieldPts(objId, fieldName, valuePts);
-
-                // Field诊断
-                //if (stmt.toString().contains("Field")) {
-                //    System.out.println("  Stored to obj " + objId + "." + fieldName + ": " + valuePts);
-                //}
+                changed |= fieldPtsManager.addFieldPts(objId, field, valuePts);
             }
         } else {
-            // Static field - use declaring class name to avoid collisions
-            String className = lvalue.getFieldRef().getDeclaringClass().getName();
-            int staticObjId = FieldPtsManager.getStaticObjId(className);
-            changed |= fieldPtsManager.addFieldPts(staticObjId, fieldName, valuePts);
+            changed |= fieldPtsManager.addStaticFieldPts(field, valuePts);
         }
 
         return changed;
@@ -513,156 +703,130 @@ public class PointerAnalysis extends PointerAnalysisTrivial {
         FieldAccess rvalue = stmt.getFieldAccess();
 
         Var base = null;
-        String fieldName = rvalue.getFieldRef().getName();
+        JField field = rvalue.getFieldRef().resolve();
 
         if (rvalue instanceof InstanceFieldAccess instField) {
             base = instField.getBase();
         }
 
-        Set<Integer> newPts = new HashSet<>();
-
-        // Field诊断：只对特定测试用例输出
-       // if (stmt.toString().contains("Field")) {
-        //    System.out.println("FIELD_LOAD: " + stmt);
-        //    System.out.println("  Base: " + base + " -> " + (base != null ? ptsManager.getPts(base) : "null"));
-        //    System.out.println("  LHS: " + lhs);
-        //}
+        PointsToSet newPts = ptsManager.makePts();
 
         if (base != null) {
-            Set<Integer> basePts = ptsManager.getPts(base);
+            PointsToSet basePts = ptsManager.getPts(base);
             for (Integer objId : basePts) {
-                Set<Integer> fieldPts = fieldPtsManager.getFieldPts(objId, fieldName);
-                newPts.addAll(fieldPts);
-
-                // Field诊断
-                //if (stmt.toString().contains("Field")) {
-                //    System.out.println("  Loaded from obj " + objId + "." + fieldName + ": " + fieldPts);
-                //}
+                newPts.addAll(fieldPtsManager.getFieldPts(objId, field));
             }
         } else {
-            // Static field - use declaring class name to avoid collisions
-            String className = rvalue.getFieldRef().getDeclaringClass().getName();
-            int staticObjId = FieldPtsManager.getStaticObjId(className);
-            newPts.addAll(fieldPtsManager.getFieldPts(staticObjId, fieldName));
+            newPts.addAll(fieldPtsManager.getStaticFieldPts(field));
         }
 
-        // Field诊断
-        //if (stmt.toString().contains("Field")) {
-        //    System.out.println("  Result: " + lhs + " -> " + newPts);
-        //}
-
         return ptsManager.addAllPointsTo(lhs, newPts);
     }
 
     /** Handle: arr[i] = x with index-sensitive analysis for constants */
-    private boolean handleStoreArray(StoreArray stmt, PointsToSetManager ptsManager, FieldPtsManager fieldPtsManager, Map<Var, Literal> constantMap) {
+    private boolean handleStoreArray(StoreArray stmt, PointsToSetManager ptsManager, FieldPtsManager fieldPtsManager, MethodSummary summary) {
         Var arrayVar = stmt.getArrayAccess().getBase();
-        Var indexVar = stmt.getArrayAccess().getIndex();
         Var value = stmt.getRValue();
 
-        Set<Integer> valuePts = ptsManager.getPts(value);
-        Set<Integer> arrayPts = ptsManager.getPts(arrayVar);
+        PointsToSet valuePts = ptsManager.getPts(value);
+        PointsToSet arrayPts = ptsManager.getPts(arrayVar);
         boolean changed = false;
 
-        // Determine field name based on index
-        String fieldName = getArrayFieldName(indexVar, constantMap);
+        // Determine slot based on index
+        int index = summary.getArrayIndex(stmt);
 
         // Store to all possible array objects
         for (Integer objId : arrayPts) {
-            changed |= fieldPtsManager.addFieldPts(objId, fieldName, valuePts);
+            changed |= fieldPtsManager.addArrayElementPts(objId, index, valuePts);
         }
 
         return changed;
     }
 
     /** Handle: x = arr[i] with index-sensitive analysis for constants */
-    private boolean handleLoadArray(LoadArray stmt, PointsToSetManager ptsManager, FieldPtsManager fieldPtsManager, Map<Var, Literal> constantMap) {
+    private boolean handleLoadArray(LoadArray stmt, PointsToSetManager ptsManager, FieldPtsManager fieldPtsManager, MethodSummary summary) {
         Var lhs = stmt.getLValue();
         Var arrayVar = stmt.getArrayAccess().getBase();
-        Var indexVar = stmt.getArrayAccess().getIndex();
 
-        Set<Integer> newPts = new HashSet<>();
-        Set<Integer> arrayPts = ptsManager.getPts(arrayVar);
+        PointsToSet newPts = ptsManager.makePts();
+        PointsToSet arrayPts = ptsManager.getPts(arrayVar);
 
-        // Determine field name based on index
-        String fieldName = getArrayFieldName(indexVar, constantMap);
+        // Determine slot based on index
+        int index = summary.getArrayIndex(stmt);
 
         // Load from all possible array objects
         for (Integer objId : arrayPts) {
-            if (fieldName.equals("[]")) {
+            if (index == ArrayIndexPtr.ANY_INDEX) {
                 // Unknown index - must include ALL array elements to be sound
                 newPts.addAll(fieldPtsManager.getAllArrayElements(objId));
             } else {
                 // Constant index - only load that specific element
-                Set<Integer> elementPts = fieldPtsManager.getFieldPts(objId, fieldName);
-                newPts.addAll(elementPts);
+                newPts.addAll(fieldPtsManager.getArrayElementPts(objId, index));
             }
         }
 
         return ptsManager.addAllPointsTo(lhs, newPts);
     }
 
-    /** Get array field name - use constant index if available, otherwise merge all */
-    private String getArrayFieldName(Var indexVar, Map<Var, Literal> constantMap) {
-        // Check if index is tracked as a constant in our map
-        if (indexVar != null && constantMap.containsKey(indexVar)) {
-            Literal constValue = constantMap.get(indexVar);
-            if (constValue instanceof IntLiteral) {
-                int intValue = ((IntLiteral) constValue).getValue();
-                return "[" + intValue + "]";
-            }
+    /** Field-sensitive manager for object fields and array elements */
+    static class FieldPtsManager {
+        // Instance fields: objId -> field -> pts
+        private final Map<Integer, Map<JField, PointsToSet>> fieldPts = new HashMap<>();
+        // Static fields: field -> pts
+        private final Map<JField, PointsToSet> staticFieldPts = new HashMap<>();
+        // Array elements: objId -> slots
+        private final Map<Integer, ArraySlots> arraySlots = new HashMap<>();
+        private final Indexer<Integer> objIndexer;
+
+        FieldPtsManager(Indexer<Integer> objIndexer) {
+            this.objIndexer = objIndexer;
         }
 
-        // Check if index variable itself is marked as const
-        if (indexVar != null && indexVar.isConst()) {
-            try {
-                Object constValue = indexVar.getConstValue();
-                if (constValue instanceof IntLiteral) {
-                    int intValue = ((IntLiteral) constValue).getValue();
-                    return "[" + intValue + "]";
-                }
-            } catch (Exception e) {
-                // Not a constant, fall through to wildcard
-            }
+        public PointsToSet getFieldPts(int objId, JField field) {
+            return fieldPts.computeIfAbsent(objId, k -> new HashMap<>())
+                    .computeIfAbsent(field, k -> new PointsToSet(objIndexer));
         }
 
-        // Unknown or variable index - use wildcard to merge all elements
-        return "[]";
-    }
+        public boolean addFieldPts(int objId, JField field, PointsToSet pts) {
+            return getFieldPts(objId, field).addAll(pts);
+        }
 
-    //** Field-sensitive manager for object fields */
-    static class FieldPtsManager {
-        private final Map<Integer, Map<String, Set<Integer>>> fieldPts = new HashMap<>();
-        private static final int STATIC_OBJ_ID = -1;
+        public PointsToSet getStaticFieldPts(JField field) {
+            return staticFieldPts.computeIfAbsent(field, k -> new PointsToSet(objIndexer));
+        }
 
-        public Set<Integer> getFieldPts(int objId, String field) {
-            return fieldPts.computeIfAbsent(objId, k -> new HashMap<>())
-                    .computeIfAbsent(field, k -> new HashSet<>());
+        public boolean addStaticFieldPts(JField field, PointsToSet pts) {
+            return getStaticFieldPts(field).addAll(pts);
+        }
+
+        /** Get the elements stored at a constant index, or through unknown indexes for ANY_INDEX */
+        public PointsToSet getArrayElementPts(int objId, int index) {
+            return getArraySlots(objId).getSlot(index);
         }
 
-        public boolean addFieldPts(int objId, String field, Set<Integer> pts) {
-            Set<Integer> set = getFieldPts(objId, field);
-            return set.addAll(pts);
+        public boolean addArrayElementPts(int objId, int index, PointsToSet pts) {
+            ArraySlots slots = getArraySlots(objId);
+            slots.all.addAll(pts);
+            return slots.getSlot(index).addAll(pts);
         }
 
         /** Get all array elements for an object (for sound handling of unknown indices) */
-        public Set<Integer> getAllArrayElements(int objId) {
-            Set<Integer> allElements = new HashSet<>();
-            Map<String, Set<Integer>> fields = fieldPts.get(objId);
-            if (fields != null) {
-                for (Map.Entry<String, Set<Integer>> entry : fields.entrySet()) {
-                    // Include [] and all [constant] fields
-                    if (entry.getKey().startsWith("[") && entry.getKey().endsWith("]")) {
-                        allElements.addAll(entry.getValue());
-                    }
-                }
-            }
-            return allElements;
+        public PointsToSet getAllArrayElements(int objId) {
+            return getArraySlots(objId).all;
+        }
+
+        private ArraySlots getArraySlots(int objId) {
+            return arraySlots.computeIfAbsent(objId, k -> new ArraySlots());
         }
 
-        public static int getStaticObjId(String className) {
-            // Use class name hash to get unique static object ID per class
-            return -1000000 - Math.abs(className.hashCode());
+        /** Elements of one array object, per constant index plus a merged summary */
+        private class ArraySlots {
+            private final Map<Integer, PointsToSet> slots = new HashMap<>();
+            private final PointsToSet all = new PointsToSet(objIndexer);
+
+            private PointsToSet getSlot(int index) {
+                return slots.computeIfAbsent(index, k -> new PointsToSet(objIndexer));
+            }
         }
     }
 }
@@ -1,21 +1,58 @@
 package pku;
 
-import java.util.Arrays;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Set;
 import java.util.TreeMap;
 import java.util.TreeSet;
 
+import pascal.taie.analysis.graph.callgraph.CallGraph;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.language.classes.JMethod;
+
 /** { [test_id] : point-to-set }, where point-to-set = { obj_id | test_id points-to obj_id } */
 public class PointerAnalysisResult extends TreeMap<Integer, TreeSet<Integer>> {
-    public String toString(){
-        return String.join("\n", this.keySet().stream().map(key->{
-            var objs = this.get(key);
-            var objs_string = String.join(" ",
-                Arrays.stream(objs.toArray(new Integer[0]))
-                .map(String::valueOf)
-                .toArray(String[]::new)
-            );
-            return key.toString()+" : "+objs_string;
-        }).toArray(String[]::new));
+    private CallGraph<Invoke, JMethod> callGraph;
+
+    private final TreeSet<Integer> degradedTests = new TreeSet<>();
+
+    /**
+     * @return the call graph built during the analysis,
+     * or null if the solver does not build one
+     */
+    public CallGraph<Invoke, JMethod> getCallGraph() {
+        return callGraph;
+    }
+
+    void setCallGraph(CallGraph<Invoke, JMethod> callGraph) {
+        this.callGraph = callGraph;
     }
-}
 
+    /**
+     * @return IDs of the tests whose points-to sets fell back to the
+     * trivial result, as the analysis stopped early at its budget
+     */
+    public Set<Integer> getDegradedTests() {
+        return Collections.unmodifiableSet(degradedTests);
+    }
+
+    void addDegradedTest(int testId) {
+        degradedTests.add(testId);
+    }
+
+    /**
+     * @return the text of result.txt without the final line break,
+     *         see {@link ResultWriter} for writing large results to files
+     */
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder();
+        try {
+            ResultWriter.writeText(this, text);
+        } catch (IOException e) {
+            throw new AssertionError(e); // StringBuilder does not throw
+        }
+        text.setLength(text.length() - 1);
+        return text.toString();
+    }
+}
@@ -11,6 +11,7 @@ import pascal.taie.World;
 import pascal.taie.analysis.ProgramAnalysis;
 import pascal.taie.analysis.misc.IRDumper;
 import pascal.taie.config.AnalysisConfig;
+import pascal.taie.ir.IR;
 
 
 public class PointerAnalysisTrivial extends ProgramAnalysis<PointerAnalysisResult> {
@@ -32,17 +33,9 @@ public class PointerAnalysisTrivial extends ProgramAnalysis<PointerAnalysisResul
 
     @Override
     public PointerAnalysisResult analyze() {
-        var preprocess = new PreprocessResult();
+        var preprocess = preprocess();
         var result = new PointerAnalysisResult();
 
-        World.get().getClassHierarchy().applicationClasses().forEach(jclass->{
-            logger.info("Analyzing class {}", jclass.getName());
-            jclass.getDeclaredMethods().forEach(method->{
-                if(!method.isAbstract())
-                    preprocess.analysis(method.getIR());
-            });
-        });
-
         var objs = new TreeSet<>(preprocess.obj_ids.values());
         preprocess.test_pts.forEach((test_id, pt)->{
             result.put(test_id, objs);
@@ -53,10 +46,43 @@ public class PointerAnalysisTrivial extends ProgramAnalysis<PointerAnalysisResul
         return result;
     }
 
+    /**
+     * Collects the per-method results of {@link Preprocess}, which runs on
+     * all methods in parallel before this analysis. Results are merged in
+     * class and method declaration order, so they do not depend on thread
+     * scheduling. Methods that Preprocess did not cover are analyzed here.
+     */
+    protected PreprocessResult preprocess() {
+        var preprocess = new PreprocessResult();
+        World.get().getClassHierarchy().applicationClasses().forEach(jclass->{
+            logger.info("Analyzing class {}", jclass.getName());
+            jclass.getDeclaredMethods().forEach(method->{
+                if (method.isAbstract() || method.isNative()) {
+                    return;
+                }
+                IR ir = method.getIR();
+                if (ir == null) {
+                    return;
+                }
+                PreprocessResult partial = ir.getResult(Preprocess.ID);
+                if (partial != null) {
+                    preprocess.merge(partial);
+                } else {
+                    preprocess.analysis(ir);
+                }
+            });
+        });
+        return preprocess;
+    }
+
     protected void dump(PointerAnalysisResult result) {
-        try (PrintStream out = new PrintStream(new FileOutputStream(dumpPath))) {
-            out.println(result);
-        } catch (FileNotFoundException e) {
+        dump(result, dumpPath);
+    }
+
+    static void dump(PointerAnalysisResult result, File path) {
+        try {
+            ResultWriter.writeText(result, path.toPath());
+        } catch (IOException e) {
             logger.warn("Failed to dump", e);
         }
     }
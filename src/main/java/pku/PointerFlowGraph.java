@@ -0,0 +1,189 @@
+package pku;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import pascal.taie.analysis.pta.core.cs.context.Context;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.language.classes.JField;
+import pascal.taie.util.Indexer;
+
+/**
+ * Pointer flow graph: variables under contexts, object fields and array slots as nodes,
+ * and an edge a -> b whenever objects pointed to by a may flow to b.
+ *
+ * Nodes are created on demand and are unique per key. Nodes of a cycle
+ * can be merged into one representative node, which then holds the edges
+ * and the shared points-to set of the whole cycle.
+ */
+public class PointerFlowGraph {
+
+    private final Indexer<Integer> objIndexer;
+
+    private final Map<Var, Map<Context, VarPtr>> varPtrs = new HashMap<>();
+
+    private final Map<Integer, Map<JField, FieldPtr>> fieldPtrs = new HashMap<>();
+
+    private final Map<JField, StaticFieldPtr> staticFieldPtrs = new HashMap<>();
+
+    private final Map<Integer, Map<Integer, ArrayIndexPtr>> arrayIndexPtrs = new HashMap<>();
+
+    /** Parent links of merged nodes; nodes absent here are representatives */
+    private final Map<Pointer, Pointer> parents = new HashMap<>();
+
+    /** Nodes merged into each representative, including itself */
+    private final Map<Pointer, List<Pointer>> members = new HashMap<>();
+
+    /** Number of nodes created so far */
+    private int pointerCount;
+
+    /** Substitution of equivalent variables, or null if variables are not substituted */
+    private final VarSubstitution substitution;
+
+    PointerFlowGraph(Indexer<Integer> objIndexer) {
+        this(objIndexer, null);
+    }
+
+    /**
+     * @param substitution variables are replaced by their representatives
+     *                     in this substitution, so they share one node
+     */
+    PointerFlowGraph(Indexer<Integer> objIndexer, VarSubstitution substitution) {
+        this.objIndexer = objIndexer;
+        this.substitution = substitution;
+    }
+
+    /**
+     * @return the node of var under context, which is the node of its
+     *         representative if var is substituted
+     */
+    public VarPtr getVarPtr(Context context, Var var) {
+        Var rep = getRepVar(var);
+        return varPtrs.computeIfAbsent(rep, k -> new HashMap<>())
+                .computeIfAbsent(context, c -> register(new VarPtr(c, rep, objIndexer)));
+    }
+
+    /**
+     * @return the variables sharing the node of rep, including rep itself
+     */
+    public List<Var> getSubstitutedVars(Var rep) {
+        return substitution != null ? substitution.getMembers(rep) : List.of(rep);
+    }
+
+    private <P extends Pointer> P register(P pointer) {
+        pointer.setOrdinal(pointerCount++);
+        return pointer;
+    }
+
+    private Var getRepVar(Var var) {
+        return substitution != null ? substitution.getRep(var) : var;
+    }
+
+    public FieldPtr getFieldPtr(int objId, JField field) {
+        return fieldPtrs.computeIfAbsent(objId, k -> new HashMap<>())
+                .computeIfAbsent(field, f -> register(new FieldPtr(objId, f, objIndexer)));
+    }
+
+    public StaticFieldPtr getStaticFieldPtr(JField field) {
+        return staticFieldPtrs.computeIfAbsent(field, f -> register(new StaticFieldPtr(f, objIndexer)));
+    }
+
+    /**
+     * Returns the slot node of an array object. A new constant slot
+     * is linked to the {@link ArrayIndexPtr#ANY_INDEX} slot of the array.
+     */
+    public ArrayIndexPtr getArrayIndexPtr(int objId, int index) {
+        Map<Integer, ArrayIndexPtr> slots = arrayIndexPtrs
+                .computeIfAbsent(objId, k -> new HashMap<>());
+        ArrayIndexPtr slot = slots.get(index);
+        if (slot == null) {
+            slot = register(new ArrayIndexPtr(objId, index, objIndexer));
+            slots.put(index, slot);
+            if (index != ArrayIndexPtr.ANY_INDEX) {
+                slot.addSuccessor(getArrayIndexPtr(objId, ArrayIndexPtr.ANY_INDEX));
+            }
+        }
+        return slot;
+    }
+
+    /**
+     * @return the slot nodes of an array object, empty if it has none
+     */
+    public Collection<ArrayIndexPtr> getArrayIndexPtrsOf(int objId) {
+        Map<Integer, ArrayIndexPtr> slots = arrayIndexPtrs.get(objId);
+        return slots != null ? slots.values() : List.of();
+    }
+
+    /**
+     * @return the nodes of var under all contexts, empty if var never appears in the graph
+     */
+    public Collection<VarPtr> getVarPtrsOf(Var var) {
+        Map<Context, VarPtr> ptrs = varPtrs.get(getRepVar(var));
+        return ptrs != null ? ptrs.values() : List.of();
+    }
+
+    public Collection<VarPtr> getVarPtrs() {
+        return varPtrs.values()
+                .stream()
+                .flatMap(ptrs -> ptrs.values().stream())
+                .toList();
+    }
+
+    /**
+     * Adds an edge source -> target, between the representatives of both nodes.
+     * @return true if the edge is new
+     */
+    public boolean addEdge(Pointer source, Pointer target) {
+        Pointer sourceRep = getRep(source);
+        Pointer targetRep = getRep(target);
+        return sourceRep != targetRep && sourceRep.addSuccessor(targetRep);
+    }
+
+    /**
+     * @return the representative of the cycle that pointer has been
+     *         merged into, or pointer itself if it has not been merged
+     */
+    public Pointer getRep(Pointer pointer) {
+        Pointer parent = parents.get(pointer);
+        if (parent == null) {
+            return pointer;
+        }
+        Pointer rep = getRep(parent);
+        if (rep != parent) { // path compression
+            parents.put(pointer, rep);
+        }
+        return rep;
+    }
+
+    /**
+     * @return the nodes merged into rep, including rep itself
+     */
+    public List<Pointer> getMembers(Pointer rep) {
+        return members.getOrDefault(rep, List.of(rep));
+    }
+
+    /**
+     * Merges the representatives of a cycle into the first one. The points-to
+     * sets of the cycle must already be equal.
+     * @return the representative of the merged cycle
+     */
+    Pointer mergeCycle(List<Pointer> cycle) {
+        Pointer rep = cycle.get(0);
+        List<Pointer> repMembers = new ArrayList<>(getMembers(rep));
+        for (Pointer pointer : cycle.subList(1, cycle.size())) {
+            parents.put(pointer, rep);
+            pointer.moveSuccessorsTo(rep);
+            for (Pointer member : getMembers(pointer)) {
+                member.sharePts(rep);
+                repMembers.add(member);
+            }
+            members.remove(pointer);
+        }
+        members.put(rep, repMembers);
+        rep.removeSuccessorIf(succ -> getRep(succ) == rep);
+        return rep;
+    }
+}
@@ -0,0 +1,107 @@
+package pku;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.StringJoiner;
+
+import pascal.taie.util.Indexer;
+import pascal.taie.util.collection.IBitSet;
+import pascal.taie.util.collection.SparseBitSet;
+
+/**
+ * Points-to set of allocation IDs.
+ *
+ * Allocation IDs are remapped to dense indexes by an {@link Indexer}, and the
+ * set is a {@link SparseBitSet} over those indexes, so union, difference and
+ * "changed?" are word-level operations instead of boxed integer lookups.
+ * Sets can only be combined with sets built on the same indexer.
+ */
+public class PointsToSet implements Iterable<Integer> {
+
+    private final Indexer<Integer> indexer;
+
+    private final IBitSet bits;
+
+    public PointsToSet(Indexer<Integer> indexer) {
+        this(indexer, new SparseBitSet());
+    }
+
+    private PointsToSet(Indexer<Integer> indexer, IBitSet bits) {
+        this.indexer = indexer;
+        this.bits = bits;
+    }
+
+    /**
+     * @return true if the set changed
+     */
+    public boolean add(int objId) {
+        return bits.set(indexer.getIndex(objId));
+    }
+
+    /**
+     * @return true if the set changed
+     */
+    public boolean addAll(PointsToSet pts) {
+        return bits.or(pts.bits);
+    }
+
+    /**
+     * Adds all objects of pts to this set.
+     * @return the objects that are new to this set
+     */
+    public PointsToSet addAllDiff(PointsToSet pts) {
+        return new PointsToSet(indexer, bits.orDiff(pts.bits));
+    }
+
+    public boolean contains(int objId) {
+        return bits.get(indexer.getIndex(objId));
+    }
+
+    /**
+     * @return true if this set contains all objects of pts
+     */
+    public boolean containsAll(PointsToSet pts) {
+        return bits.contains(pts.bits);
+    }
+
+    public boolean isEmpty() {
+        return bits.isEmpty();
+    }
+
+    public int size() {
+        return bits.cardinality();
+    }
+
+    public PointsToSet copy() {
+        return new PointsToSet(indexer, bits.copy());
+    }
+
+    @Override
+    public Iterator<Integer> iterator() {
+        return new Iterator<>() {
+            private int next = bits.nextSetBit(0);
+
+            @Override
+            public boolean hasNext() {
+                return next >= 0;
+            }
+
+            @Override
+            public Integer next() {
+                if (next < 0) {
+                    throw new NoSuchElementException();
+                }
+                Integer objId = indexer.getObject(next);
+                next = bits.nextSetBit(next + 1);
+                return objId;
+            }
+        };
+    }
+
+    @Override
+    public String toString() {
+        StringJoiner joiner = new StringJoiner(", ", "[", "]");
+        forEach(objId -> joiner.add(objId.toString()));
+        return joiner.toString();
+    }
+}
@@ -2,35 +2,48 @@ package pku;
 
 import pascal.taie.ir.exp.Var;
 import pascal.taie.language.classes.JField;
+import pascal.taie.util.Indexer;
 
 import java.util.*;
 
 /**
  * Manages points-to sets for variables and object fields.
+ * All sets share one {@link Indexer} of allocation IDs, see {@link PointsToSet}.
  *
  * Person A should implement this class as infrastructure.
  */
 public class PointsToSetManager {
 
+    // Dense indexes of allocation IDs
+    private final Indexer<Integer> objIndexer;
+
     // Points-to sets for variables: var -> {obj1, obj2, ...}
-    private final Map<Var, Set<Integer>> varPointsTo;
+    private final Map<Var, PointsToSet> varPointsTo;
 
     // Points-to sets for object fields: (objId, field) -> {obj1, obj2, ...}
-    private final Map<ObjectField, Set<Integer>> fieldPointsTo;
+    private final Map<ObjectField, PointsToSet> fieldPointsTo;
 
-    public PointsToSetManager() {
+    public PointsToSetManager(Indexer<Integer> objIndexer) {
+        this.objIndexer = objIndexer;
         this.varPointsTo = new HashMap<>();
         this.fieldPointsTo = new HashMap<>();
     }
 
+    /**
+     * Create an empty points-to set over the allocation IDs of this manager.
+     */
+    public PointsToSet makePts() {
+        return new PointsToSet(objIndexer);
+    }
+
     // ========== Variable Points-To Operations ==========
 
     /**
      * Get the points-to set for a variable.
      * Creates an empty set if variable not seen before.
      */
-    public Set<Integer> getPts(Var var) {
-        return varPointsTo.computeIfAbsent(var, k -> new HashSet<>());
+    public PointsToSet getPts(Var var) {
+        return varPointsTo.computeIfAbsent(var, k -> makePts());
     }
 
     /**
@@ -46,7 +59,7 @@ public class PointsToSetManager {
      * Used for: a = b (add all of b's objects to a)
      * @return true if the set changed
      */
-    public boolean addAllPointsTo(Var dest, Set<Integer> srcObjs) {
+    public boolean addAllPointsTo(Var dest, PointsToSet srcObjs) {
         if (srcObjs.isEmpty()) {
             return false;
         }
@@ -59,9 +72,9 @@ public class PointsToSetManager {
      * Get the points-to set for an object's field.
      * Example: Object 1's field 'f' -> {2, 3}
      */
-    public Set<Integer> getFieldPts(int objId, JField field) {
+    public PointsToSet getFieldPts(int objId, JField field) {
         ObjectField of = new ObjectField(objId, field);
-        return fieldPointsTo.computeIfAbsent(of, k -> new HashSet<>());
+        return fieldPointsTo.computeIfAbsent(of, k -> makePts());
     }
 
     /**
@@ -77,7 +90,7 @@ public class PointsToSetManager {
      * Add multiple objects to a field's points-to set.
      * @return true if the set changed
      */
-    public boolean addAllFieldPointsTo(int objId, JField field, Set<Integer> targetObjs) {
+    public boolean addAllFieldPointsTo(int objId, JField field, PointsToSet targetObjs) {
         if (targetObjs.isEmpty()) {
             return false;
         }
@@ -98,12 +111,12 @@ public class PointsToSetManager {
      */
     public void dump() {
         System.out.println("=== Variable Points-To Sets ===");
-        for (Map.Entry<Var, Set<Integer>> entry : varPointsTo.entrySet()) {
+        for (Map.Entry<Var, PointsToSet> entry : varPointsTo.entrySet()) {
             System.out.println(entry.getKey().getName() + " -> " + entry.getValue());
         }
 
         System.out.println("\n=== Field Points-To Sets ===");
-        for (Map.Entry<ObjectField, Set<Integer>> entry : fieldPointsTo.entrySet()) {
+        for (Map.Entry<ObjectField, PointsToSet> entry : fieldPointsTo.entrySet()) {
             System.out.println(entry.getKey() + " -> " + entry.getValue());
         }
     }
@@ -16,8 +16,10 @@ public class Preprocess extends MethodAnalysis<PreprocessResult> {
 
     @Override
     public PreprocessResult analyze(IR ir) {
+        long start = System.nanoTime();
         var result = new PreprocessResult();
         result.analysis(ir);
+        result.setTime(start, System.nanoTime());
         return result;
     }
     
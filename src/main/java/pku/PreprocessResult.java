@@ -8,6 +8,7 @@ import pascal.taie.ir.exp.InvokeStatic;
 import pascal.taie.ir.exp.Var;
 import pascal.taie.ir.stmt.Invoke;
 import pascal.taie.ir.stmt.New;
+import pascal.taie.language.classes.JMethod;
 
 import java.util.Map;
 
@@ -15,10 +16,19 @@ public class PreprocessResult {
 
     public final Map<New, Integer> obj_ids;
     public final Map<Integer, Var> test_pts;
+    public final Map<JMethod, MethodSummary> summaries;
+
+    /**
+     * Time span of the methods preprocessed by {@link Preprocess},
+     * in {@link System#nanoTime()}, empty if start is after end
+     */
+    private long startNanos = Long.MAX_VALUE;
+    private long endNanos = Long.MIN_VALUE;
 
     public PreprocessResult() {
         obj_ids = new HashMap<New, Integer>();
         test_pts = new HashMap<Integer, Var>();
+        summaries = new HashMap<JMethod, MethodSummary>();
     }
 
     /**
@@ -59,6 +69,53 @@ public class PreprocessResult {
         return test_pts.get(id);
     }
 
+    /**
+     * Merges the result of another (method-level) preprocessing into this
+     *
+     * @param other result to merge
+     */
+    public void merge(PreprocessResult other) {
+        obj_ids.putAll(other.obj_ids);
+        test_pts.putAll(other.test_pts);
+        summaries.putAll(other.summaries);
+        startNanos = Math.min(startNanos, other.startNanos);
+        endNanos = Math.max(endNanos, other.endNanos);
+    }
+
+    /**
+     * Sets the time span of preprocessing a method in {@link Preprocess}
+     */
+    void setTime(long startNanos, long endNanos) {
+        this.startNanos = startNanos;
+        this.endNanos = endNanos;
+    }
+
+    /**
+     * @return seconds from the start of the first to the end of the last
+     *         method preprocessed in parallel by {@link Preprocess} and merged
+     *         into this, or 0 if there is none
+     */
+    public float getPreprocessSeconds() {
+        return startNanos < endNanos ? (endNanos - startNanos) / 1e9F : 0;
+    }
+
+    /**
+     * @param method a JMethod
+     * @return summary of the method, built on first use for methods that
+     *         were not preprocessed, or null if the method has no IR
+     */
+    public MethodSummary getSummary(JMethod method) {
+        MethodSummary summary = summaries.get(method);
+        if (summary == null && !method.isAbstract() && !method.isNative()) {
+            IR ir = method.getIR();
+            if (ir != null) {
+                summary = MethodSummary.of(ir);
+                summaries.put(method, summary);
+            }
+        }
+        return summary;
+    }
+
     /**
      * analysis of a JMethod, the result storing in this
      * 
@@ -66,8 +123,11 @@ public class PreprocessResult {
      */
     public void analysis(IR ir) {
         var stmts = ir.getStmts();
+        var summary = new MethodSummary(ir);
+        summaries.put(ir.getMethod(), summary);
         Integer id = 0;
         for (var stmt : stmts) {
+            summary.addStmt(stmt);
 
             if (stmt instanceof Invoke) {
                 var exp = ((Invoke) stmt).getInvokeExp();
@@ -102,5 +162,6 @@ public class PreprocessResult {
                 }
             }   
         }
+        summary.computeArrayIndexes(ir);
     }
 }
@@ -0,0 +1,363 @@
+package pku;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Generates synthetic programs for stress-testing pointer analyses, with
+ * their ground truth. The programs use benchmark.internal.Benchmark like
+ * the ones in src/test/pku, which must be on the class path with them, and
+ * can be analyzed by both pku-pta and pta from the main class.
+ *
+ * A program consists of units, each of which allocates a node and passes
+ * it through the enabled features, testing it after each of them:
+ * a copy cycle in a loop that may also receive another node, a chain of
+ * field stores and loads, stores and loads through an array, a virtual
+ * call over several subclasses, and a chain of static calls, which may
+ * call back to its beginning. Whether a path is taken depends only on the
+ * number of program arguments, so every path is feasible, and the ground
+ * truth of a test is the union of the objects over all of them.
+ *
+ * Units share no method, field or array slot that a node may flow through,
+ * each of them calls a pass method of its own, so the ground truth is
+ * also the result of a context-insensitive analysis of the program.
+ * Besides the sources, the generator writes expected.txt, the ground
+ * truth in the text format of result.txt, to compare with a result by
+ * {@link ResultReader}.
+ *
+ * Usage: ProgramGenerator [output-dir] [knob=value]..., see {@link Knobs}.
+ */
+public class ProgramGenerator {
+
+    private static final Logger logger = LogManager.getLogger(ProgramGenerator.class);
+
+    public static final String PACKAGE = "synthetic";
+
+    public static final String MAIN_CLASS = PACKAGE + ".Main";
+
+    /** File of the ground truth in the output directory */
+    public static final String EXPECTED_FILE = "expected.txt";
+
+    /** Units per generated class, to keep classes within class file limits */
+    private static final int UNITS_PER_CLASS = 100;
+
+    private final Knobs knobs;
+
+    /**
+     * Object IDs of the nodes allocated by the overriding methods of the
+     * subclasses, by unit of the current class and subclass.
+     */
+    private final int[][] subObjIds;
+
+    private int nextObjId;
+
+    private int nextTestId;
+
+    private long statements;
+
+    private PointerAnalysisResult expected;
+
+    public ProgramGenerator(Knobs knobs) {
+        this.knobs = knobs;
+        this.subObjIds = new int[UNITS_PER_CLASS][knobs.fanOut()];
+    }
+
+    /**
+     * Writes the program as Java sources under dir, and its ground truth
+     * to dir/{@value #EXPECTED_FILE}.
+     * @return name of the main class
+     */
+    public String generate(Path dir) throws IOException {
+        nextObjId = 1;
+        nextTestId = 1;
+        statements = 0;
+        expected = new PointerAnalysisResult();
+        Path pkg = Files.createDirectories(dir.resolve(PACKAGE));
+        try (PrintStream out = open(pkg.resolve("Node.java"))) {
+            out.println("package " + PACKAGE + ";");
+            out.println();
+            out.println("public class Node {");
+            out.println("  public Node next;");
+            out.println("}");
+        }
+        int units = knobs.units();
+        int classes = (units + UNITS_PER_CLASS - 1) / UNITS_PER_CLASS;
+        for (int c = 0; c < classes; ++c) {
+            int end = Math.min(units, (c + 1) * UNITS_PER_CLASS);
+            writeClass(pkg, c, c * UNITS_PER_CLASS, end);
+        }
+        try (PrintStream out = open(pkg.resolve("Main.java"))) {
+            out.println("package " + PACKAGE + ";");
+            out.println();
+            out.println("public class Main {");
+            out.println();
+            out.println("  public static void main(String[] args) {");
+            for (int c = 0; c < classes; ++c) {
+                statement(out, 2, "C" + c + ".run(args);");
+            }
+            out.println("  }");
+            out.println("}");
+        }
+        ResultWriter.writeText(expected, dir.resolve(EXPECTED_FILE));
+        logger.info("Generated {} units with {} statements, {} objects and {} tests in {}",
+                units, statements, nextObjId - 1, nextTestId - 1, dir);
+        return MAIN_CLASS;
+    }
+
+    /**
+     * Writes Base[c] and its subclasses Sub[c]_[j] for the units [begin, end)
+     * of class C[c], with a method pass[u] for each unit u, which either
+     * passes on or replaces a node.
+     */
+    private void writeSubclasses(Path pkg, int c, int begin, int end) throws IOException {
+        try (PrintStream out = open(pkg.resolve("Base" + c + ".java"))) {
+            out.println("package " + PACKAGE + ";");
+            out.println();
+            out.println("public abstract class Base" + c + " {");
+            for (int u = begin; u < end; ++u) {
+                out.println("  public abstract Node pass" + u + "(Node p);");
+            }
+            out.println("}");
+        }
+        for (int j = 0; j < knobs.fanOut(); ++j) {
+            try (PrintStream out = open(pkg.resolve("Sub" + c + "_" + j + ".java"))) {
+                out.println("package " + PACKAGE + ";");
+                out.println();
+                out.println("import benchmark.internal.Benchmark;");
+                out.println();
+                out.println("public class Sub" + c + "_" + j + " extends Base" + c + " {");
+                for (int u = begin; u < end; ++u) {
+                    out.println();
+                    out.println("  public Node pass" + u + "(Node p) {");
+                    if (j % 2 == 0) {
+                        statement(out, 2, "return p;");
+                    } else {
+                        subObjIds[u - begin][j] = alloc(out, 2, "Node r", "Node");
+                        statement(out, 2, "return r;");
+                    }
+                    out.println("  }");
+                }
+                out.println("}");
+            }
+        }
+    }
+
+    /** Writes class C[c] with units [begin, end) and run() calling them */
+    private void writeClass(Path pkg, int c, int begin, int end) throws IOException {
+        if (knobs.fanOut() > 0) {
+            writeSubclasses(pkg, c, begin, end);
+        }
+        try (PrintStream out = open(pkg.resolve("C" + c + ".java"))) {
+            out.println("package " + PACKAGE + ";");
+            out.println();
+            out.println("import benchmark.internal.Benchmark;");
+            out.println();
+            out.println("public class C" + c + " {");
+            out.println();
+            out.println("  public static void run(String[] args) {");
+            for (int u = begin; u < end; ++u) {
+                statement(out, 2, "u" + u + "(args);");
+            }
+            out.println("  }");
+            for (int u = begin; u < end; ++u) {
+                writeUnit(out, c, u, begin);
+            }
+            out.println("}");
+        }
+    }
+
+    private void writeUnit(PrintStream out, int c, int u, int begin) {
+        out.println();
+        out.println("  static void u" + u + "(String[] args) {");
+        // objects the current node n may point to
+        Set<Integer> pts = new TreeSet<>();
+        pts.add(alloc(out, 2, "Node n", "Node"));
+        test(out, "n", pts);
+        if (knobs.copyCycle() > 0) {
+            int length = knobs.copyCycle();
+            pts.add(alloc(out, 2, "Node w", "Node"));
+            statement(out, 2, "Node c0 = n;");
+            for (int k = 1; k < length; ++k) {
+                statement(out, 2, "Node c" + k + " = c" + (k - 1) + ";");
+            }
+            statement(out, 2, "for (int k = 0; k < args.length; ++k) {");
+            statement(out, 3, "c0 = c" + (length - 1) + ";");
+            statement(out, 3, "if (k == 1) {");
+            statement(out, 4, "c0 = w;");
+            out.println("      }");
+            for (int k = 1; k < length; ++k) {
+                statement(out, 3, "c" + k + " = c" + (k - 1) + ";");
+            }
+            out.println("    }");
+            statement(out, 2, "n = c" + (length - 1) + ";");
+            test(out, "n", pts);
+        }
+        if (knobs.fieldChain() > 0) {
+            int length = knobs.fieldChain();
+            for (int k = 0; k < length; ++k) {
+                alloc(out, 2, "Node h" + k, "Node");
+            }
+            for (int k = 0; k + 1 < length; ++k) {
+                statement(out, 2, "h" + k + ".next = h" + (k + 1) + ";");
+            }
+            statement(out, 2, "h" + (length - 1) + ".next = n;");
+            statement(out, 2, "Node f0 = h0;");
+            for (int k = 1; k <= length; ++k) {
+                statement(out, 2, "Node f" + k + " = f" + (k - 1) + ".next;");
+            }
+            statement(out, 2, "n = f" + length + ";");
+            test(out, "n", pts);
+        }
+        if (knobs.arrays()) {
+            statement(out, 2, "Node[] a = new Node[2];");
+            statement(out, 2, "a[0] = n;");
+            statement(out, 2, "a[1] = a[0];");
+            statement(out, 2, "n = a[1];");
+            test(out, "n", pts);
+        }
+        if (knobs.fanOut() > 0) {
+            alloc(out, 2, "Base" + c + " b", "Sub" + c + "_0");
+            for (int j = 1; j < knobs.fanOut(); ++j) {
+                statement(out, 2, "if (args.length == " + j + ") {");
+                alloc(out, 3, "b", "Sub" + c + "_" + j);
+                out.println("    }");
+            }
+            statement(out, 2, "n = b.pass" + u + "(n);");
+            for (int j = 1; j < knobs.fanOut(); j += 2) {
+                pts.add(subObjIds[u - begin][j]);
+            }
+            // Sub[c]_0, the receiver unless args.length is in [1, fanOut), passes n on
+            test(out, "n", pts);
+        }
+        if (knobs.callDepth() > 0) {
+            statement(out, 2, "n = u" + u + "_1(n, args);");
+            test(out, "n", pts);
+        }
+        out.println("  }");
+        for (int k = 1; k <= knobs.callDepth(); ++k) {
+            out.println();
+            out.println("  static Node u" + u + "_" + k + "(Node p, String[] args) {");
+            statement(out, 2, "Node q = p;");
+            if (k < knobs.callDepth()) {
+                statement(out, 2, "return u" + u + "_" + (k + 1) + "(q, args);");
+            } else {
+                if (knobs.recursion()) {
+                    statement(out, 2, "if (args.length > 0) {");
+                    statement(out, 3, "return u" + u
+                            + "_1(q, new String[args.length - 1]);");
+                    out.println("    }");
+                }
+                statement(out, 2, "return q;");
+            }
+            out.println("  }");
+        }
+    }
+
+    /**
+     * Writes a labeled allocation "[lhs] = new [type]();".
+     * @return ID of the allocated object
+     */
+    private int alloc(PrintStream out, int indent, String lhs, String type) {
+        int objId = nextObjId++;
+        statement(out, indent, "Benchmark.alloc(" + objId + ");");
+        statement(out, indent, lhs + " = new " + type + "();");
+        return objId;
+    }
+
+    /** Writes a test of var, whose ground truth is pts */
+    private void test(PrintStream out, String var, Set<Integer> pts) {
+        int testId = nextTestId++;
+        statement(out, 2, "Benchmark.test(" + testId + ", " + var + ");");
+        expected.put(testId, new TreeSet<>(pts));
+    }
+
+    private void statement(PrintStream out, int indent, String statement) {
+        out.println("  ".repeat(indent) + statement);
+        ++statements;
+    }
+
+    private static PrintStream open(Path file) throws IOException {
+        return new PrintStream(Files.newOutputStream(file), false, StandardCharsets.UTF_8);
+    }
+
+    public static void main(String... args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: ProgramGenerator <output-dir> [knob=value]...");
+            System.exit(2);
+        }
+        Knobs knobs = Knobs.of(1000);
+        for (int i = 1; i < args.length; ++i) {
+            knobs = knobs.with(args[i]);
+        }
+        new ProgramGenerator(knobs).generate(Path.of(args[0]));
+    }
+
+    /**
+     * Knobs of the generated program, each of the features can be turned off
+     * by 0 or false:
+     * @param methods    approximate number of methods, which sets the number
+     *                   of units; with the other knobs by default, there are
+     *                   about 8 statements per method, e.g., 1M statements
+     *                   for 125000 methods
+     * @param callDepth  number of static calls each node is passed through
+     * @param recursion  whether the last of these calls may call the first
+     * @param fieldChain number of field loads to reach a node
+     * @param arrays     whether nodes are passed through arrays
+     * @param fanOut     number of subclasses a virtual call may dispatch to
+     * @param copyCycle  number of variables in each copy cycle
+     */
+    public record Knobs(int methods, int callDepth, boolean recursion,
+                        int fieldChain, boolean arrays, int fanOut, int copyCycle) {
+
+        public Knobs {
+            if (methods < 1 || callDepth < 0 || fieldChain < 0
+                    || fanOut < 0 || copyCycle < 0) {
+                throw new IllegalArgumentException("Invalid knobs: " + this);
+            }
+        }
+
+        /** @return the default knobs for about the given number of methods */
+        public static Knobs of(int methods) {
+            return new Knobs(methods, 4, true, 3, true, 4, 3);
+        }
+
+        /** @return these knobs with one of them set by "[knob]=[value]" */
+        public Knobs with(String knob) {
+            String[] kv = knob.split("=", 2);
+            if (kv.length != 2) {
+                throw new IllegalArgumentException("Expected knob=value, given: " + knob);
+            }
+            String v = kv[1];
+            return switch (kv[0]) {
+                case "methods" -> new Knobs(Integer.parseInt(v), callDepth, recursion,
+                        fieldChain, arrays, fanOut, copyCycle);
+                case "callDepth" -> new Knobs(methods, Integer.parseInt(v), recursion,
+                        fieldChain, arrays, fanOut, copyCycle);
+                case "recursion" -> new Knobs(methods, callDepth, Boolean.parseBoolean(v),
+                        fieldChain, arrays, fanOut, copyCycle);
+                case "fieldChain" -> new Knobs(methods, callDepth, recursion,
+                        Integer.parseInt(v), arrays, fanOut, copyCycle);
+                case "arrays" -> new Knobs(methods, callDepth, recursion,
+                        fieldChain, Boolean.parseBoolean(v), fanOut, copyCycle);
+                case "fanOut" -> new Knobs(methods, callDepth, recursion,
+                        fieldChain, arrays, Integer.parseInt(v), copyCycle);
+                case "copyCycle" -> new Knobs(methods, callDepth, recursion,
+                        fieldChain, arrays, fanOut, Integer.parseInt(v));
+                default -> throw new IllegalArgumentException("Unknown knob: " + kv[0]);
+            };
+        }
+
+        /** @return number of units, each of which has 1 + callDepth + fanOut methods */
+        private int units() {
+            return Math.max(1, methods / (1 + callDepth + fanOut));
+        }
+    }
+}
@@ -0,0 +1,238 @@
+package pku;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Reads the tests of a result file one at a time, in the text or the
+ * binary format of {@link ResultWriter}, which is detected from the
+ * first bytes of the file. Tests must be sorted by ID, as written by
+ * {@link ResultWriter}, so two files can be compared in one pass.
+ *
+ * Usage: ResultReader [result-file] [result-file], prints the tests
+ * whose points-to sets differ, and exits with 1 if there is any.
+ */
+public class ResultReader implements Closeable {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final Path file;
+
+    /** Reader of a text file, or null for a binary file */
+    private final BufferedReader text;
+
+    /** Channel of a binary file, or null for a text file */
+    private final FileChannel channel;
+
+    private final ByteBuffer buffer;
+
+    /** Number of tests left in a binary file */
+    private int remaining;
+
+    /** ID of the last test read, or null before the first test */
+    private Integer lastTestId;
+
+    private ResultReader(Path file) throws IOException {
+        this.file = file;
+        FileChannel channel = FileChannel.open(file);
+        ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        buffer.limit(0);
+        if (channel.size() >= Integer.BYTES
+                && readFully(channel, buffer, Integer.BYTES)
+                && buffer.getInt() == ResultWriter.MAGIC) {
+            this.text = null;
+            this.channel = channel;
+            this.buffer = buffer;
+            this.remaining = getVarInt();
+        } else {
+            channel.close();
+            this.text = Files.newBufferedReader(file, StandardCharsets.UTF_8);
+            this.channel = null;
+            this.buffer = null;
+        }
+    }
+
+    public static ResultReader open(Path file) throws IOException {
+        return new ResultReader(file);
+    }
+
+    /**
+     * @return the next test of the file, or null if there is none
+     */
+    public Test next() throws IOException {
+        Test test = channel != null ? nextBinary() : nextText();
+        if (test != null) {
+            if (lastTestId != null && test.id() <= lastTestId) {
+                throw new IOException(file + ": test " + test.id()
+                        + " is not sorted after test " + lastTestId);
+            }
+            lastTestId = test.id();
+        }
+        return test;
+    }
+
+    private Test nextText() throws IOException {
+        String line;
+        do {
+            line = text.readLine();
+            if (line == null) {
+                return null;
+            }
+        } while (line.isBlank());
+        int colon = line.indexOf(':');
+        if (colon < 0) {
+            throw new IOException(file + ": malformed line: " + line);
+        }
+        int testId = Integer.parseInt(line.substring(0, colon).trim());
+        String objs = line.substring(colon + 1).trim();
+        int[] objIds = objs.isEmpty() ? new int[0]
+                : Arrays.stream(objs.split("\\s+")).mapToInt(Integer::parseInt).toArray();
+        Arrays.sort(objIds);
+        return new Test(testId, objIds);
+    }
+
+    private Test nextBinary() throws IOException {
+        if (remaining == 0) {
+            return null;
+        }
+        --remaining;
+        int testId = (lastTestId == null ? 0 : lastTestId) + unZigZag(getVarInt());
+        int[] objIds = new int[getVarInt()];
+        int lastObjId = 0;
+        for (int i = 0; i < objIds.length; ++i) {
+            lastObjId += unZigZag(getVarInt());
+            objIds[i] = lastObjId;
+        }
+        return new Test(testId, objIds);
+    }
+
+    private int getVarInt() throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            if (!buffer.hasRemaining() && !readFully(channel, buffer, 1)) {
+                throw new EOFException(file + ": truncated result file");
+            }
+            byte b = buffer.get();
+            value |= (b & 0x7f) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException(file + ": malformed result file");
+    }
+
+    private static int unZigZag(int value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * Refills buffer from channel until it has at least n bytes to read.
+     * @return false if the channel ends before that
+     */
+    private static boolean readFully(FileChannel channel, ByteBuffer buffer, int n)
+            throws IOException {
+        buffer.compact();
+        while (buffer.position() < n) {
+            if (channel.read(buffer) < 0) {
+                buffer.flip();
+                return false;
+            }
+        }
+        buffer.flip();
+        return true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+        } else {
+            text.close();
+        }
+    }
+
+    /**
+     * Compares two result files test by test, and prints "- [test]" for
+     * tests only in file1, "+ [test]" for tests only in file2, and
+     * "~ [test_id] : -[obj_id] +[obj_id] ..." for tests whose objects differ.
+     * @return the number of tests that differ
+     */
+    public static int diff(Path file1, Path file2, PrintStream out) throws IOException {
+        int diffs = 0;
+        try (ResultReader reader1 = open(file1); ResultReader reader2 = open(file2)) {
+            Test test1 = reader1.next();
+            Test test2 = reader2.next();
+            while (test1 != null || test2 != null) {
+                if (test2 == null || (test1 != null && test1.id() < test2.id())) {
+                    out.println("- " + test1);
+                    test1 = reader1.next();
+                    ++diffs;
+                } else if (test1 == null || test2.id() < test1.id()) {
+                    out.println("+ " + test2);
+                    test2 = reader2.next();
+                    ++diffs;
+                } else {
+                    if (!Arrays.equals(test1.objIds(), test2.objIds())) {
+                        out.println("~ " + diffObjects(test1, test2));
+                        ++diffs;
+                    }
+                    test1 = reader1.next();
+                    test2 = reader2.next();
+                }
+            }
+        }
+        return diffs;
+    }
+
+    private static String diffObjects(Test test1, Test test2) {
+        StringBuilder line = new StringBuilder().append(test1.id()).append(" :");
+        int[] objs1 = test1.objIds();
+        int[] objs2 = test2.objIds();
+        int i = 0, j = 0;
+        while (i < objs1.length || j < objs2.length) {
+            if (j == objs2.length || (i < objs1.length && objs1[i] < objs2[j])) {
+                line.append(" -").append(objs1[i++]);
+            } else if (i == objs1.length || objs2[j] < objs1[i]) {
+                line.append(" +").append(objs2[j++]);
+            } else {
+                ++i;
+                ++j;
+            }
+        }
+        return line.toString();
+    }
+
+    public static void main(String... args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: ResultReader <result-file> <result-file>");
+            System.exit(2);
+        }
+        int diffs = diff(Path.of(args[0]), Path.of(args[1]), System.out);
+        System.exit(diffs == 0 ? 0 : 1);
+    }
+
+    /** A test and its sorted object IDs */
+    public record Test(int id, int[] objIds) {
+
+        @Override
+        public String toString() {
+            StringBuilder line = new StringBuilder();
+            try {
+                ResultWriter.appendLine(line, id,
+                        Arrays.stream(objIds).boxed().toList());
+            } catch (IOException e) {
+                throw new AssertionError(e); // StringBuilder does not throw
+            }
+            return line.toString();
+        }
+    }
+}
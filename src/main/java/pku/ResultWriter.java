@@ -0,0 +1,126 @@
+package pku;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Writes a {@link PointerAnalysisResult} one test at a time, without
+ * building the whole output in memory.
+ *
+ * The text format is the one of result.txt, i.e., a line
+ * "[test_id] : [obj_id] [obj_id] ..." per test. The binary format is
+ * for machine comparison, see {@link ResultReader}: a magic number and
+ * the number of tests, followed by each test as its ID, the number of
+ * its objects and the objects. Test IDs and object IDs are sorted and
+ * written as deltas in variable-length encoding.
+ */
+public class ResultWriter {
+
+    /** Magic number of the binary format, "PKUR" */
+    static final int MAGIC = 0x504b5552;
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private ResultWriter() {
+    }
+
+    /** Writes result to file in the text format */
+    public static void writeText(PointerAnalysisResult result, Path file) throws IOException {
+        try (FileChannel channel = open(file);
+             Writer out = new BufferedWriter(Channels.newWriter(channel,
+                     StandardCharsets.UTF_8), BUFFER_SIZE)) {
+            writeText(result, out);
+        }
+    }
+
+    /**
+     * Writes result in the text format, with a line break after the last line.
+     */
+    public static void writeText(PointerAnalysisResult result, Appendable out)
+            throws IOException {
+        boolean first = true;
+        for (Map.Entry<Integer, TreeSet<Integer>> entry : result.entrySet()) {
+            if (!first) {
+                out.append('\n');
+            }
+            first = false;
+            appendLine(out, entry.getKey(), entry.getValue());
+        }
+        out.append('\n');
+    }
+
+    /** Appends the text line of a test, without the line break */
+    static void appendLine(Appendable out, int testId, Iterable<Integer> objs)
+            throws IOException {
+        out.append(Integer.toString(testId)).append(" :");
+        boolean empty = true;
+        for (Integer objId : objs) {
+            out.append(' ').append(Integer.toString(objId));
+            empty = false;
+        }
+        if (empty) {
+            out.append(' ');
+        }
+    }
+
+    /** Writes result to file in the binary format */
+    public static void writeBinary(PointerAnalysisResult result, Path file) throws IOException {
+        try (FileChannel channel = open(file)) {
+            ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+            buffer.putInt(MAGIC);
+            putVarInt(channel, buffer, result.size());
+            int lastTestId = 0;
+            for (Map.Entry<Integer, TreeSet<Integer>> entry : result.entrySet()) {
+                int testId = entry.getKey();
+                putVarInt(channel, buffer, zigZag(testId - lastTestId));
+                lastTestId = testId;
+                putVarInt(channel, buffer, entry.getValue().size());
+                int lastObjId = 0;
+                for (int objId : entry.getValue()) {
+                    putVarInt(channel, buffer, zigZag(objId - lastObjId));
+                    lastObjId = objId;
+                }
+            }
+            flush(channel, buffer);
+        }
+    }
+
+    private static FileChannel open(Path file) throws IOException {
+        return FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+    }
+
+    /** Maps signed deltas to unsigned ones, so small negative deltas stay short */
+    private static int zigZag(int value) {
+        return (value << 1) ^ (value >> 31);
+    }
+
+    private static void putVarInt(FileChannel channel, ByteBuffer buffer, int value)
+            throws IOException {
+        if (buffer.remaining() < 5) {
+            flush(channel, buffer);
+        }
+        while ((value & ~0x7f) != 0) {
+            buffer.put((byte) ((value & 0x7f) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    private static void flush(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
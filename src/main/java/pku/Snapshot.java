@@ -0,0 +1,304 @@
+package pku;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import pascal.taie.World;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.ir.stmt.StoreArray;
+import pascal.taie.ir.stmt.StoreField;
+import pascal.taie.language.classes.JClass;
+import pascal.taie.language.classes.JField;
+import pascal.taie.language.classes.JMethod;
+
+/**
+ * Snapshot of a demand-driven run of pku-pta, for incremental re-analysis.
+ *
+ * A snapshot keeps a hash of the IR of every application method, and the
+ * points-to set of every test together with its {@link Footprint}. When the
+ * program changes, the test results whose footprint is not touched by any
+ * changed, added or removed method are reused, and only the other tests are
+ * queried again. A change of any class header (superclass, interfaces or
+ * fields) invalidates all results, as it may change dispatch and field
+ * resolution without changing any method.
+ *
+ * Snapshots are only supported by the demand solver, so an incremental run
+ * gives the same result as a cold run of the demand solver, which takes all
+ * application methods as reachable and may thus be less precise than the
+ * default pfg solver. A pfg run, including the whole-program fallback of a
+ * query that exceeds its limit, neither reads nor saves a snapshot, as
+ * the reachable methods and call edges its results depend on may be changed
+ * by any method through the points-to sets of receivers.
+ *
+ * Snapshots are stored as tab-separated text, one record per line.
+ */
+public class Snapshot {
+
+    private static final Logger logger = LogManager.getLogger(Snapshot.class);
+
+    private static final String HEADER = "pku-pta-snapshot\t1";
+
+    /** Pseudo field signature of array elements */
+    static final String ARRAY_FIELD = "[]";
+
+    /** Hash of all application class headers */
+    private final String classesHash;
+
+    /** Application methods by signature */
+    private final Map<String, MethodInfo> methods;
+
+    private final Map<Integer, TreeSet<Integer>> results = new TreeMap<>();
+
+    private final Map<Integer, Footprint> footprints = new TreeMap<>();
+
+    private Snapshot(String classesHash, Map<String, MethodInfo> methods) {
+        this.classesHash = classesHash;
+        this.methods = methods;
+    }
+
+    /**
+     * @return an empty snapshot of the application classes in the current world
+     */
+    public static Snapshot ofWorld() {
+        StringBuilder headers = new StringBuilder();
+        Map<String, MethodInfo> methods = new HashMap<>();
+        World.get().getClassHierarchy().applicationClasses()
+                .sorted((c1, c2) -> c1.getName().compareTo(c2.getName()))
+                .forEach(c -> {
+                    headers.append(getHeader(c)).append('\n');
+                    for (JMethod method : c.getDeclaredMethods()) {
+                        methods.put(method.getSignature(), MethodInfo.of(method));
+                    }
+                });
+        return new Snapshot(digest(headers.toString()), methods);
+    }
+
+    private static String getHeader(JClass c) {
+        StringBuilder header = new StringBuilder(c.getName());
+        header.append(" extends ").append(c.getSuperClass());
+        new TreeSet<>(c.getInterfaces().stream().map(JClass::getName).toList())
+                .forEach(i -> header.append(' ').append(i));
+        new TreeSet<>(c.getDeclaredFields().stream().map(JField::getSignature).toList())
+                .forEach(f -> header.append(' ').append(f));
+        return header.toString();
+    }
+
+    private static String digest(String text) {
+        try {
+            MessageDigest sha = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(
+                    sha.digest(text.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * @return the snapshot stored in file, or null if the file does not exist
+     *         or is not a snapshot of this version
+     */
+    public static Snapshot load(Path file) {
+        if (!Files.exists(file)) {
+            return null;
+        }
+        try (BufferedReader reader = Files.newBufferedReader(file)) {
+            if (!HEADER.equals(reader.readLine())) {
+                logger.warn("Ignoring {}, which is not a pku-pta snapshot of this version", file);
+                return null;
+            }
+            Snapshot snapshot = null;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] fields = line.split("\t", -1);
+                List<String> values = Arrays.asList(fields).subList(2, fields.length);
+                switch (fields[0]) {
+                    case "classes" -> snapshot = new Snapshot(fields[1], new HashMap<>());
+                    case "method" -> snapshot.methods.put(fields[1],
+                            new MethodInfo(values.get(0), values.get(1),
+                                    new HashSet<>(values.subList(2, values.size()))));
+                    case "invokes" -> snapshot.methods.get(fields[1]).invokes().addAll(values);
+                    case "test" -> {
+                        TreeSet<Integer> result = new TreeSet<>();
+                        values.forEach(objId -> result.add(Integer.parseInt(objId)));
+                        snapshot.results.put(Integer.parseInt(fields[1]), result);
+                    }
+                    case "test-methods", "test-fields", "test-invoked", "test-called" -> {
+                        Footprint footprint = snapshot.footprints.computeIfAbsent(
+                                Integer.parseInt(fields[1]), k -> new Footprint());
+                        switch (fields[0]) {
+                            case "test-methods" -> footprint.methods().addAll(values);
+                            case "test-fields" -> footprint.fields().addAll(values);
+                            case "test-invoked" -> footprint.invoked().addAll(values);
+                            default -> footprint.called().addAll(values);
+                        }
+                    }
+                    default -> throw new IOException("Unknown record: " + fields[0]);
+                }
+            }
+            return snapshot;
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Ignoring unreadable pku-pta snapshot {}: {}", file, e.toString());
+            return null;
+        }
+    }
+
+    public void save(Path file) throws IOException {
+        try (PrintStream out = new PrintStream(Files.newOutputStream(file),
+                false, StandardCharsets.UTF_8)) {
+            out.println(HEADER);
+            out.println("classes\t" + classesHash);
+            new TreeMap<>(methods).forEach((signature, info) -> {
+                out.println(join("method", signature, List.of(info.hash(), info.subsignature()),
+                        info.stores()));
+                out.println(join("invokes", signature, List.of(), info.invokes()));
+            });
+            results.forEach((testId, result) -> {
+                out.println(join("test", testId.toString(), List.of(),
+                        result.stream().map(String::valueOf).toList()));
+                Footprint footprint = footprints.get(testId);
+                out.println(join("test-methods", testId.toString(), List.of(), footprint.methods()));
+                out.println(join("test-fields", testId.toString(), List.of(), footprint.fields()));
+                out.println(join("test-invoked", testId.toString(), List.of(), footprint.invoked()));
+                out.println(join("test-called", testId.toString(), List.of(), footprint.called()));
+            });
+        }
+    }
+
+    private static String join(String kind, String key, List<String> values,
+                               Collection<String> list) {
+        StringBuilder line = new StringBuilder(kind).append('\t').append(key);
+        values.forEach(v -> line.append('\t').append(v));
+        new TreeSet<>(list).forEach(v -> line.append('\t').append(v));
+        return line.toString();
+    }
+
+    /**
+     * @return signatures of the methods that differ between this (earlier)
+     *         snapshot and current, or null if any class header differs
+     */
+    public Set<String> getChangedMethods(Snapshot current) {
+        if (!classesHash.equals(current.classesHash)) {
+            return null;
+        }
+        Set<String> changed = new HashSet<>();
+        methods.forEach((signature, info) -> {
+            MethodInfo currentInfo = current.methods.get(signature);
+            if (currentInfo == null || !info.hash().equals(currentInfo.hash())) {
+                changed.add(signature);
+            }
+        });
+        current.methods.keySet().forEach(signature -> {
+            if (!methods.containsKey(signature)) {
+                changed.add(signature);
+            }
+        });
+        return changed;
+    }
+
+    /**
+     * @param changed methods changed since this snapshot, see {@link #getChangedMethods}
+     * @return the result of testId in this snapshot if the changed methods
+     *         cannot affect it, otherwise null
+     */
+    public TreeSet<Integer> getReusableResult(int testId, Set<String> changed,
+                                              Snapshot current) {
+        Footprint footprint = footprints.get(testId);
+        if (footprint == null) {
+            return null;
+        }
+        for (String signature : changed) {
+            if (footprint.methods().contains(signature)) {
+                return null;
+            }
+            // the earlier version of a removed method, or the current one of others
+            MethodInfo info = current.methods.getOrDefault(signature, methods.get(signature));
+            if (footprint.invoked().contains(info.subsignature())
+                    || info.stores().stream().anyMatch(footprint.fields()::contains)
+                    || info.invokes().stream().anyMatch(footprint.called()::contains)) {
+                return null;
+            }
+        }
+        return results.get(testId);
+    }
+
+    public Footprint getFootprint(int testId) {
+        return footprints.get(testId);
+    }
+
+    public void putTest(int testId, TreeSet<Integer> result, Footprint footprint) {
+        results.put(testId, result);
+        footprints.put(testId, footprint);
+    }
+
+    /**
+     * What the points-to set of a test depends on:
+     * @param methods signatures of methods whose variables it depends on
+     * @param fields  signatures of fields loaded by them, or {@link #ARRAY_FIELD}
+     * @param invoked subsignatures of calls whose results they receive
+     * @param called  subsignatures of methods whose parameters or this they are
+     */
+    public record Footprint(Set<String> methods, Set<String> fields,
+                            Set<String> invoked, Set<String> called) {
+
+        public Footprint() {
+            this(new HashSet<>(), new HashSet<>(), new HashSet<>(), new HashSet<>());
+        }
+    }
+
+    /**
+     * A method in a snapshot:
+     * @param hash         hash of its IR
+     * @param subsignature its subsignature
+     * @param stores       signatures of the fields it stores to, or {@link #ARRAY_FIELD}
+     * @param invokes      subsignatures of the methods it calls
+     */
+    private record MethodInfo(String hash, String subsignature,
+                              Set<String> stores, Set<String> invokes) {
+
+        private MethodInfo(String hash, String subsignature, Set<String> stores) {
+            this(hash, subsignature, stores, new HashSet<>());
+        }
+
+        private static MethodInfo of(JMethod method) {
+            Set<String> stores = new HashSet<>();
+            Set<String> invokes = new HashSet<>();
+            StringBuilder text = new StringBuilder(method.getSignature());
+            IR ir = method.isAbstract() || method.isNative() ? null : method.getIR();
+            if (ir != null) {
+                for (Stmt stmt : ir.getStmts()) {
+                    text.append('\n').append(stmt);
+                    if (stmt instanceof StoreField store) {
+                        stores.add(store.getFieldRef().resolve().getSignature());
+                    } else if (stmt instanceof StoreArray) {
+                        stores.add(ARRAY_FIELD);
+                    } else if (stmt instanceof Invoke invoke) {
+                        invokes.add(invoke.getMethodRef().getSubsignature().toString());
+                    }
+                }
+            }
+            return new MethodInfo(digest(text.toString()),
+                    method.getSubsignature().toString(), stores, invokes);
+        }
+    }
+}
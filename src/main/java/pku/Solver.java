@@ -0,0 +1,704 @@
+package pku;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+import pascal.taie.analysis.graph.callgraph.CallGraph;
+import pascal.taie.analysis.graph.callgraph.CallGraphs;
+import pascal.taie.analysis.graph.callgraph.DefaultCallGraph;
+import pascal.taie.analysis.graph.callgraph.Edge;
+import pascal.taie.analysis.pta.core.cs.context.Context;
+import pascal.taie.analysis.pta.core.cs.element.ArrayBasedCSManager;
+import pascal.taie.analysis.pta.core.cs.element.CSCallSite;
+import pascal.taie.analysis.pta.core.cs.element.CSManager;
+import pascal.taie.analysis.pta.core.cs.element.CSMethod;
+import pascal.taie.analysis.pta.core.cs.element.CSObj;
+import pascal.taie.analysis.pta.core.cs.selector.ContextSelector;
+import pascal.taie.analysis.pta.core.cs.selector.ContextSelectorFactory;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.InvokeExp;
+import pascal.taie.ir.exp.InvokeInstanceExp;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Cast;
+import pascal.taie.ir.stmt.Copy;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.LoadArray;
+import pascal.taie.ir.stmt.LoadField;
+import pascal.taie.ir.stmt.New;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.ir.stmt.StoreArray;
+import pascal.taie.ir.stmt.StoreField;
+import pascal.taie.language.classes.JClass;
+import pascal.taie.language.classes.JField;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.Indexer;
+import pascal.taie.util.SimpleIndexer;
+import pascal.taie.util.collection.Pair;
+import pascal.taie.util.graph.SCC;
+import pascal.taie.util.graph.SimpleGraph;
+
+/**
+ * Worklist-driven pointer flow graph solver.
+ *
+ * Statements are turned into pointer flow graph edges once; afterwards only
+ * difference sets are propagated along the edges from one global work list,
+ * until the work list is empty. Field, array and call edges are added as
+ * the points-to sets of their base variables grow.
+ *
+ * Cycles of the pointer flow graph are detected lazily: when objects are
+ * propagated along an edge whose target already has the same points-to set,
+ * the edge is checked once for a cycle, and the strongly connected component
+ * is collapsed into one node with a shared points-to set.
+ *
+ * Methods are discovered on the fly from the entry methods, so the call graph
+ * is built together with the points-to sets. Only statements of reachable
+ * application methods are analyzed; calls into other methods still pass
+ * arguments and return values.
+ *
+ * Variables of a method that provably point to the same objects are
+ * substituted by one representative beforehand, see {@link VarSubstitution}.
+ *
+ * With more than one thread, the work list is processed in rounds, and
+ * objects are propagated in parallel, see {@link #analyzeInRounds}. The
+ * fixed point is the same as the one of the sequential work list, unless
+ * a method reaches the maximum number of contexts, in which case the
+ * contexts it keeps depend on the processing order. Thus context-sensitive
+ * analyses are always solved in rounds, also on one thread, as the rounds
+ * select contexts in the same order for any number of threads.
+ *
+ * Variables and objects are qualified by contexts chosen by a
+ * {@link ContextSelector}; the context-insensitive selector gives the plain
+ * analysis. Internally, points-to sets hold indexes of context-sensitive
+ * objects. A method that already has the maximum number of contexts is
+ * analyzed under the empty context for any further context.
+ */
+public class Solver {
+
+    private final PreprocessResult preprocess;
+
+    /** Indexer of allocation IDs, for the points-to sets of results */
+    private final Indexer<Integer> objIndexer;
+
+    /** Indexer of context-sensitive object indexes, for internal points-to sets */
+    private final Indexer<Integer> csObjIndexer = new SimpleIndexer<>();
+
+    private final ContextSelector selector;
+
+    /** Maximum number of contexts per method */
+    private final int maxContexts;
+
+    /** One unit of work per processed work list entry */
+    private final Budget budget;
+
+    /** Number of threads propagating objects */
+    private final int threads;
+
+    /** Whether the work list is processed in rounds instead of one by one */
+    private final boolean inRounds;
+
+    private final CSManager csManager = new ArrayBasedCSManager();
+
+    private final DispatchCache dispatchCache;
+
+    private final PointerFlowGraph pointerFlowGraph;
+
+    private final WorkList workList = new WorkList();
+
+    /** Context-insensitive call graph of the result */
+    private final DefaultCallGraph callGraph = new DefaultCallGraph();
+
+    /** Reachable methods whose statements are analyzed */
+    private final Set<CSMethod> methods = new HashSet<>();
+
+    /** Contexts selected for each method so far */
+    private final Map<JMethod, Set<Context>> methodContexts = new HashMap<>();
+
+    private final Map<New, AllocObj> allocObjs = new HashMap<>();
+
+    private final Set<JClass> initializedClasses = new HashSet<>();
+
+    /** Pointer flow graph edges already checked for cycles */
+    private final Set<Pair<Pointer, Pointer>> checkedEdges = new HashSet<>();
+
+    /** Instance call sites, kept for falling back to the declared method */
+    private final List<CSCallSite> instanceCalls = new ArrayList<>();
+
+    private Metrics metrics = Metrics.DISABLED;
+
+    public Solver(PreprocessResult preprocess, Indexer<Integer> objIndexer,
+                  String cs, int maxContexts, Budget budget) {
+        this(preprocess, objIndexer, cs, maxContexts, budget, 1);
+    }
+
+    /**
+     * @param cs      context sensitivity variant, e.g. ci or 2-obj
+     * @param threads number of threads propagating objects;
+     *                more than one solves in parallel rounds, as
+     *                context-sensitive selectors do on any number of threads
+     */
+    public Solver(PreprocessResult preprocess, Indexer<Integer> objIndexer,
+                  String cs, int maxContexts, Budget budget,
+                  int threads) {
+        this.preprocess = preprocess;
+        this.objIndexer = objIndexer;
+        this.selector = ContextSelectorFactory.makePlainSelector(cs);
+        this.maxContexts = maxContexts;
+        this.budget = budget;
+        this.threads = threads;
+        // the rounds make the contexts kept under max-contexts independent of threads
+        this.inRounds = threads > 1 || !"ci".equals(cs);
+        this.dispatchCache = new DispatchCache(
+                objId -> getCSObj(objId).getObject().getType(), csObjIndexer);
+        this.pointerFlowGraph = new PointerFlowGraph(csObjIndexer, new VarSubstitution());
+    }
+
+    /** Sets the metrics counted while solving */
+    public void setMetrics(Metrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Solves the points-to sets of methods reachable from entries
+     * until fixed point, or until the budget is exhausted.
+     * @return true if the fixed point is reached
+     */
+    public boolean solve(Collection<JMethod> entries) {
+        for (JMethod entry : entries) {
+            callGraph.addEntryMethod(entry);
+            addReachableMethod(csManager.getCSMethod(selector.getEmptyContext(), entry));
+        }
+        ForkJoinPool pool = inRounds ? new ForkJoinPool(threads) : null;
+        try {
+            do {
+                if (pool == null) {
+                    metrics.increment(Metrics.Counter.ITERATIONS);
+                }
+                if (!(pool != null ? analyzeInRounds(pool) : analyze())) {
+                    return false;
+                }
+            } while (resolveFallbackCalls());
+            return true;
+        } finally {
+            if (pool != null) {
+                pool.shutdown();
+            }
+        }
+    }
+
+    /**
+     * @return points-to set of var after solving, merged over all contexts
+     */
+    public PointsToSet getPts(Var var) {
+        PointsToSet pts = new PointsToSet(objIndexer);
+        for (VarPtr ptr : pointerFlowGraph.getVarPtrsOf(var)) {
+            for (Integer objId : ptr.getPts()) {
+                pts.add(((AllocObj) getCSObj(objId).getObject()).getAllocId());
+            }
+        }
+        return pts;
+    }
+
+    public PointerFlowGraph getPointerFlowGraph() {
+        return pointerFlowGraph;
+    }
+
+    public CallGraph<Invoke, JMethod> getCallGraph() {
+        return callGraph;
+    }
+
+    private CSObj getCSObj(int objId) {
+        return csManager.getObjectIndexer().getObject(objId);
+    }
+
+    /**
+     * @return context if callee still has budget for it,
+     *         otherwise the empty context
+     */
+    private Context limitContext(JMethod callee, Context context) {
+        Set<Context> contexts = methodContexts.computeIfAbsent(callee, k -> new HashSet<>());
+        if (contexts.contains(context) || contexts.size() < maxContexts) {
+            contexts.add(context);
+            return context;
+        }
+        return selector.getEmptyContext();
+    }
+
+    private void addReachableMethod(CSMethod csMethod) {
+        JMethod method = csMethod.getMethod();
+        if (callGraph.addReachableMethod(method)) {
+            if (method.isStatic() || method.isConstructor()) {
+                initializeClass(method.getDeclaringClass());
+            }
+        }
+        if (method.isApplication()) {
+            addMethod(csMethod);
+        }
+    }
+
+    /** Makes the static initializers of cls and its superclasses reachable */
+    private void initializeClass(JClass cls) {
+        if (cls == null || !initializedClasses.add(cls)) {
+            return;
+        }
+        initializeClass(cls.getSuperClass());
+        JMethod clinit = cls.getClinit();
+        if (clinit != null) {
+            addReachableMethod(csManager.getCSMethod(selector.getEmptyContext(), clinit));
+        }
+    }
+
+    /** Adds the edges and initial objects of the statements of a method under a context */
+    private void addMethod(CSMethod csMethod) {
+        JMethod method = csMethod.getMethod();
+        if (method.isAbstract() || method.isNative()) {
+            return;
+        }
+        IR ir = method.getIR();
+        if (ir == null || !methods.add(csMethod)) {
+            return;
+        }
+        metrics.increment(Metrics.Counter.METHODS);
+        Context context = csMethod.getContext();
+        for (Stmt stmt : ir.getStmts()) {
+            long start = metrics.startHandler();
+            if (stmt instanceof New newStmt) {
+                Integer allocId = preprocess.obj_ids.get(newStmt);
+                if (allocId != null) {
+                    AllocObj obj = allocObjs.computeIfAbsent(newStmt,
+                            k -> new AllocObj(allocId, newStmt));
+                    Context heapContext = selector.selectHeapContext(csMethod, obj);
+                    PointsToSet pts = new PointsToSet(csObjIndexer);
+                    pts.add(csManager.getCSObj(heapContext, obj).getIndex());
+                    addPointsTo(pointerFlowGraph.getVarPtr(context, newStmt.getLValue()), pts);
+                }
+            } else if (stmt instanceof Copy copyStmt) {
+                addEdge(pointerFlowGraph.getVarPtr(context, copyStmt.getRValue()),
+                        pointerFlowGraph.getVarPtr(context, copyStmt.getLValue()));
+            } else if (stmt instanceof Cast castStmt) {
+                addEdge(pointerFlowGraph.getVarPtr(context, castStmt.getRValue().getValue()),
+                        pointerFlowGraph.getVarPtr(context, castStmt.getLValue()));
+            } else if (stmt instanceof StoreField storeStmt) {
+                if (storeStmt.isStatic()) {
+                    JField field = storeStmt.getFieldRef().resolve();
+                    initializeClass(field.getDeclaringClass());
+                    addEdge(pointerFlowGraph.getVarPtr(context, storeStmt.getRValue()),
+                            pointerFlowGraph.getStaticFieldPtr(field));
+                }
+            } else if (stmt instanceof LoadField loadStmt) {
+                if (loadStmt.isStatic()) {
+                    JField field = loadStmt.getFieldRef().resolve();
+                    initializeClass(field.getDeclaringClass());
+                    addEdge(pointerFlowGraph.getStaticFieldPtr(field),
+                            pointerFlowGraph.getVarPtr(context, loadStmt.getLValue()));
+                }
+            } else if (stmt instanceof Invoke invokeStmt) {
+                CSCallSite csCallSite = csManager.getCSCallSite(context, invokeStmt);
+                if (invokeStmt.isStatic()) {
+                    JMethod target = invokeStmt.getMethodRef().resolve();
+                    if (!target.isAbstract()) {
+                        Context calleeContext = limitContext(target,
+                                selector.selectContext(csCallSite, target));
+                        addCallEdge(csCallSite, csManager.getCSMethod(calleeContext, target));
+                    }
+                } else if (invokeStmt.getInvokeExp() instanceof InvokeInstanceExp) {
+                    instanceCalls.add(csCallSite);
+                }
+            }
+            metrics.endHandler(stmt.getClass().getSimpleName(), start);
+        }
+    }
+
+    /**
+     * Processes work list entries until the work list is empty.
+     * @return false if the budget is exhausted before that
+     */
+    private boolean analyze() {
+        while (!workList.isEmpty()) {
+            if (!budget.consume()) {
+                return false;
+            }
+            WorkList.Entry entry = workList.pollEntry();
+            metrics.increment(Metrics.Counter.WORK_LIST_ENTRIES);
+            if (entry instanceof WorkList.PointerEntry pEntry) {
+                Pointer pointer = pointerFlowGraph.getRep(pEntry.pointer());
+                // taken before propagate(), which may merge pointer into a cycle
+                List<Pointer> members = pointerFlowGraph.getMembers(pointer);
+                PointsToSet diff = propagate(pointer, pEntry.pts());
+                if (!diff.isEmpty()) {
+                    for (Pointer member : members) {
+                        processNewObjects(member, diff);
+                    }
+                }
+            } else if (entry instanceof WorkList.CallEdgeEntry eEntry) {
+                processCallEdge(eEntry.edge());
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Processes work list entries in rounds until the work list is empty.
+     * Each round processes the pending call edges, then propagates the
+     * pending objects in parallel, and then processes the statements using
+     * the variables with new objects, in the creation order of the variables.
+     * Propagation is done level by level, where each level only updates its
+     * own pointers, so the rounds do not depend on the number of threads.
+     * Cycles are not collapsed in this mode.
+     * @return false if the budget is exhausted before that
+     */
+    private boolean analyzeInRounds(ForkJoinPool pool) {
+        while (!workList.isEmpty()) {
+            metrics.increment(Metrics.Counter.ITERATIONS);
+            while (workList.hasCallEdges()) {
+                if (!budget.consume()) {
+                    return false;
+                }
+                metrics.increment(Metrics.Counter.WORK_LIST_ENTRIES);
+                processCallEdge(((WorkList.CallEdgeEntry) workList.pollEntry()).edge());
+            }
+            Map<Pointer, PointsToSet> newObjects = new ConcurrentHashMap<>();
+            Map<Pointer, PointsToSet> level = workList.pollPointerEntries();
+            while (!level.isEmpty()) {
+                level = pool.invoke(propagateLevel(level, newObjects));
+                if (budget.isExhausted()) {
+                    return false;
+                }
+            }
+            newObjects.entrySet()
+                    .stream()
+                    .sorted(Comparator.comparingInt(e -> e.getKey().getOrdinal()))
+                    .forEach(e -> processNewObjects(e.getKey(), e.getValue()));
+        }
+        return true;
+    }
+
+    /**
+     * Propagates the objects of one level to the points-to sets of its
+     * pointers, and collects the objects new to each pointer into newObjects.
+     * @return the next level, i.e., the new objects of each successor
+     */
+    private ForkJoinTask<Map<Pointer, PointsToSet>> propagateLevel(
+            Map<Pointer, PointsToSet> level, Map<Pointer, PointsToSet> newObjects) {
+        return ForkJoinTask.adapt(() -> {
+            Map<Pointer, PointsToSet> nextLevel = new ConcurrentHashMap<>();
+            level.entrySet().parallelStream().forEach(e -> {
+                if (!budget.consume()) {
+                    return;
+                }
+                metrics.increment(Metrics.Counter.WORK_LIST_ENTRIES);
+                // each pointer occurs once per level, so no other thread updates its set
+                Pointer pointer = e.getKey();
+                PointsToSet diff = pointer.getPts().addAllDiff(e.getValue());
+                if (diff.isEmpty()) {
+                    return;
+                }
+                metrics.increment(Metrics.Counter.PROPAGATIONS);
+                metrics.add(Metrics.Counter.PROPAGATED_OBJECTS, diff::size);
+                newObjects.computeIfAbsent(pointer, k -> new PointsToSet(csObjIndexer))
+                        .addAll(diff);
+                for (Pointer succ : pointer.getSuccessors()) {
+                    nextLevel.merge(succ, diff, (pts1, pts2) -> {
+                        PointsToSet union = pts1.copy();
+                        union.addAll(pts2);
+                        return union;
+                    });
+                }
+            });
+            return nextLevel;
+        });
+    }
+
+    /**
+     * Processes the statements that use a variable, or any variable
+     * substituted by it, for its new objects
+     */
+    private void processNewObjects(Pointer pointer, PointsToSet diff) {
+        if (pointer instanceof VarPtr varPtr) {
+            Context context = varPtr.getContext();
+            if (methods.contains(csManager.getCSMethod(context,
+                    varPtr.getVar().getMethod()))) {
+                for (Var var : pointerFlowGraph.getSubstitutedVars(varPtr.getVar())) {
+                    long start = metrics.startHandler();
+                    processInstanceStore(context, var, diff);
+                    start = metrics.endHandler("StoreField", start);
+                    processInstanceLoad(context, var, diff);
+                    start = metrics.endHandler("LoadField", start);
+                    processArrayStore(context, var, diff);
+                    start = metrics.endHandler("StoreArray", start);
+                    processArrayLoad(context, var, diff);
+                    start = metrics.endHandler("LoadArray", start);
+                    processCall(context, var, diff);
+                    metrics.endHandler("Invoke", start);
+                }
+            }
+        }
+    }
+
+    /**
+     * Propagates pts to the points-to set of pointer and its successors.
+     * @return the objects that are new to pointer
+     */
+    private PointsToSet propagate(Pointer pointer, PointsToSet pts) {
+        PointsToSet diff = pointer.getPts().addAllDiff(pts);
+        if (!diff.isEmpty()) {
+            metrics.increment(Metrics.Counter.PROPAGATIONS);
+            metrics.add(Metrics.Counter.PROPAGATED_OBJECTS, diff::size);
+            List<Pointer> cycleCandidates = new ArrayList<>();
+            for (Pointer succ : pointer.getSuccessors()) {
+                Pointer succRep = pointerFlowGraph.getRep(succ);
+                if (succRep == pointer) {
+                    continue;
+                }
+                workList.addEntry(succRep, diff);
+                // lazy cycle detection: a successor that has no object
+                // beyond those of pointer gets the same points-to set once
+                // the objects sent along the edge arrive, which hints at
+                // a cycle; each edge is checked once
+                if (!succRep.getPts().isEmpty()
+                        && pointer.getPts().containsAll(succRep.getPts())
+                        && checkedEdges.add(new Pair<>(pointer, succRep))) {
+                    cycleCandidates.add(succRep);
+                }
+            }
+            for (Pointer succ : cycleCandidates) {
+                collapseCycle(pointerFlowGraph.getRep(pointer),
+                        pointerFlowGraph.getRep(succ));
+            }
+        }
+        return diff;
+    }
+
+    /**
+     * Collapses the strongly connected component containing the edge
+     * source -> target into one node, if the edge is on a cycle.
+     */
+    private void collapseCycle(Pointer source, Pointer target) {
+        if (source == target) {
+            return;
+        }
+        // build the graph of representatives reachable from target
+        SimpleGraph<Pointer> graph = new SimpleGraph<>();
+        graph.addEdge(source, target);
+        Deque<Pointer> stack = new ArrayDeque<>();
+        Set<Pointer> visited = new HashSet<>();
+        stack.push(target);
+        visited.add(target);
+        while (!stack.isEmpty()) {
+            Pointer pointer = stack.pop();
+            for (Pointer succ : pointer.getSuccessors()) {
+                Pointer succRep = pointerFlowGraph.getRep(succ);
+                if (succRep != pointer) {
+                    graph.addEdge(pointer, succRep);
+                    if (visited.add(succRep)) {
+                        stack.push(succRep);
+                    }
+                }
+            }
+        }
+        if (!visited.contains(source)) {
+            return;
+        }
+        for (List<Pointer> component : new SCC<>(graph).getTrueComponents()) {
+            if (component.contains(source)) {
+                mergeCycle(component);
+            }
+        }
+    }
+
+    /**
+     * Merges the pointers of a cycle, after bringing each of them
+     * up to the union of their points-to sets.
+     */
+    private void mergeCycle(List<Pointer> cycle) {
+        PointsToSet union = new PointsToSet(csObjIndexer);
+        for (Pointer pointer : cycle) {
+            union.addAll(pointer.getPts());
+        }
+        for (Pointer pointer : cycle) {
+            PointsToSet missing = pointer.getPts().addAllDiff(union);
+            if (!missing.isEmpty()) {
+                for (Pointer member : pointerFlowGraph.getMembers(pointer)) {
+                    processNewObjects(member, missing);
+                }
+            }
+        }
+        Pointer rep = pointerFlowGraph.mergeCycle(cycle);
+        metrics.increment(Metrics.Counter.COLLAPSED_CYCLES);
+        for (Pointer succ : rep.getSuccessors()) {
+            workList.addEntry(succ, rep.getPts());
+        }
+    }
+
+    /** Handle: x.f = y, for new objects of x */
+    private void processInstanceStore(Context context, Var base, PointsToSet pts) {
+        for (StoreField store : base.getStoreFields()) {
+            VarPtr from = pointerFlowGraph.getVarPtr(context, store.getRValue());
+            JField field = store.getFieldRef().resolve();
+            for (Integer objId : pts) {
+                addEdge(from, pointerFlowGraph.getFieldPtr(objId, field));
+            }
+        }
+    }
+
+    /** Handle: y = x.f, for new objects of x */
+    private void processInstanceLoad(Context context, Var base, PointsToSet pts) {
+        for (LoadField load : base.getLoadFields()) {
+            VarPtr to = pointerFlowGraph.getVarPtr(context, load.getLValue());
+            JField field = load.getFieldRef().resolve();
+            for (Integer objId : pts) {
+                addEdge(pointerFlowGraph.getFieldPtr(objId, field), to);
+            }
+        }
+    }
+
+    /** Handle: a[i] = y, for new objects of a */
+    private void processArrayStore(Context context, Var array, PointsToSet pts) {
+        MethodSummary summary = preprocess.getSummary(array.getMethod());
+        for (StoreArray store : array.getStoreArrays()) {
+            VarPtr from = pointerFlowGraph.getVarPtr(context, store.getRValue());
+            int index = summary.getArrayIndex(store);
+            for (Integer objId : pts) {
+                addEdge(from, pointerFlowGraph.getArrayIndexPtr(objId, index));
+            }
+        }
+    }
+
+    /** Handle: y = a[i], for new objects of a */
+    private void processArrayLoad(Context context, Var array, PointsToSet pts) {
+        MethodSummary summary = preprocess.getSummary(array.getMethod());
+        for (LoadArray load : array.getLoadArrays()) {
+            VarPtr to = pointerFlowGraph.getVarPtr(context, load.getLValue());
+            int index = summary.getArrayIndex(load);
+            for (Integer objId : pts) {
+                addEdge(pointerFlowGraph.getArrayIndexPtr(objId, index), to);
+            }
+        }
+    }
+
+    /**
+     * Dispatches instance calls on new receiver objects of recv, and passes
+     * each receiver object to this of the callee under the selected context.
+     */
+    private void processCall(Context context, Var recv, PointsToSet pts) {
+        for (Invoke invoke : recv.getInvokes()) {
+            CSCallSite csCallSite = csManager.getCSCallSite(context, invoke);
+            // constructors, private and super calls do not depend on the receiver type
+            JMethod specialTarget = invoke.isSpecial()
+                    ? CallGraphs.resolveCallee(null, invoke) : null;
+            for (Integer objId : pts) {
+                CSObj recvObj = getCSObj(objId);
+                JMethod target = invoke.isSpecial() ? specialTarget
+                        : dispatchCache.dispatch(recvObj.getObject().getType(),
+                        invoke.getMethodRef());
+                if (target == null || target.isAbstract()) {
+                    continue;
+                }
+                Context calleeContext = limitContext(target,
+                        selector.selectContext(csCallSite, recvObj, target));
+                addCallEdge(csCallSite, csManager.getCSMethod(calleeContext, target));
+                MethodSummary summary = preprocess.getSummary(target);
+                if (summary != null && summary.getThis() != null) {
+                    PointsToSet recvPts = new PointsToSet(csObjIndexer);
+                    recvPts.add(objId);
+                    addPointsTo(pointerFlowGraph.getVarPtr(
+                            calleeContext, summary.getThis()), recvPts);
+                }
+            }
+        }
+    }
+
+    /**
+     * Instance calls that never resolved a target fall back to
+     * the declared method, as {@link PointerAnalysis} does.
+     * @return true if any call edge is added
+     */
+    private boolean resolveFallbackCalls() {
+        boolean changed = false;
+        for (CSCallSite csCallSite : instanceCalls) {
+            Invoke invoke = csCallSite.getCallSite();
+            if (callGraph.getCalleesOf(invoke).isEmpty()) {
+                JMethod declaredMethod = invoke.getMethodRef().resolve();
+                if (!declaredMethod.isAbstract()) {
+                    Context calleeContext = limitContext(declaredMethod,
+                            selector.selectContext(csCallSite, declaredMethod));
+                    addCallEdge(csCallSite,
+                            csManager.getCSMethod(calleeContext, declaredMethod));
+                    // no receiver object selected the callee, so pass the base as a whole
+                    MethodSummary summary = preprocess.getSummary(declaredMethod);
+                    if (summary != null && summary.getThis() != null) {
+                        Var base = ((InvokeInstanceExp) invoke.getInvokeExp()).getBase();
+                        addEdge(pointerFlowGraph.getVarPtr(csCallSite.getContext(), base),
+                                pointerFlowGraph.getVarPtr(calleeContext, summary.getThis()));
+                    }
+                    changed = true;
+                }
+            }
+        }
+        return changed;
+    }
+
+    private void addCallEdge(CSCallSite csCallSite, CSMethod csCallee) {
+        workList.addEntry(new Edge<>(CallGraphs.getCallKind(csCallSite.getCallSite()),
+                csCallSite, csCallee));
+    }
+
+    /**
+     * Processes a new call edge, i.e., makes the callee reachable and adds
+     * edges for the arguments and return values.
+     */
+    private void processCallEdge(Edge<CSCallSite, CSMethod> edge) {
+        CSCallSite csCallSite = edge.getCallSite();
+        if (!csCallSite.addEdge(edge)) {
+            return;
+        }
+        metrics.increment(Metrics.Counter.CALL_EDGES);
+        CSMethod csCallee = edge.getCallee();
+        JMethod callee = csCallee.getMethod();
+        Invoke invoke = csCallSite.getCallSite();
+        callGraph.addEdge(new Edge<>(edge.getKind(), invoke, callee));
+        addReachableMethod(csCallee);
+        MethodSummary summary = preprocess.getSummary(callee);
+        if (summary == null) {
+            return;
+        }
+        Context callerContext = csCallSite.getContext();
+        Context calleeContext = csCallee.getContext();
+        InvokeExp invokeExp = invoke.getInvokeExp();
+        List<Var> params = summary.getParams();
+        for (int i = 0; i < invokeExp.getArgCount() && i < params.size(); i++) {
+            addEdge(pointerFlowGraph.getVarPtr(callerContext, invokeExp.getArg(i)),
+                    pointerFlowGraph.getVarPtr(calleeContext, params.get(i)));
+        }
+        Var lhs = invoke.getLValue();
+        if (lhs != null) {
+            for (Var ret : summary.getReturnVars()) {
+                addEdge(pointerFlowGraph.getVarPtr(calleeContext, ret),
+                        pointerFlowGraph.getVarPtr(callerContext, lhs));
+            }
+        }
+    }
+
+    private void addEdge(Pointer source, Pointer target) {
+        if (pointerFlowGraph.addEdge(source, target)) {
+            metrics.increment(Metrics.Counter.POINTER_FLOW_EDGES);
+            if (!source.getPts().isEmpty()) {
+                workList.addEntry(target, source.getPts());
+            }
+        }
+    }
+
+    private void addPointsTo(Pointer pointer, PointsToSet pts) {
+        workList.addEntry(pointer, pts);
+    }
+}
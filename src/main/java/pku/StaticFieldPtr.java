@@ -0,0 +1,25 @@
+package pku;
+
+import pascal.taie.language.classes.JField;
+import pascal.taie.util.Indexer;
+
+/**
+ * Pointer flow graph node for a static field.
+ */
+public class StaticFieldPtr extends Pointer {
+    private final JField field;
+
+    StaticFieldPtr(JField field, Indexer<Integer> objIndexer) {
+        super(objIndexer);
+        this.field = field;
+    }
+
+    public JField getField() {
+        return field;
+    }
+
+    @Override
+    public String toString() {
+        return field.toString();
+    }
+}
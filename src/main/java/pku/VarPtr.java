@@ -0,0 +1,32 @@
+package pku;
+
+import pascal.taie.analysis.pta.core.cs.context.Context;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.util.Indexer;
+
+/**
+ * Pointer flow graph node for a variable under a context.
+ */
+public class VarPtr extends Pointer {
+    private final Context context;
+    private final Var var;
+
+    VarPtr(Context context, Var var, Indexer<Integer> objIndexer) {
+        super(objIndexer);
+        this.context = context;
+        this.var = var;
+    }
+
+    public Context getContext() {
+        return context;
+    }
+
+    public Var getVar() {
+        return var;
+    }
+
+    @Override
+    public String toString() {
+        return context + ":" + var.getMethod() + "/" + var.getName();
+    }
+}
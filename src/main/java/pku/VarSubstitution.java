@@ -0,0 +1,129 @@
+package pku;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Cast;
+import pascal.taie.ir.stmt.Copy;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.graph.SCC;
+import pascal.taie.util.graph.SimpleGraph;
+
+/**
+ * Offline variable substitution: variables of a method that provably have
+ * the same points-to set are replaced by one representative variable.
+ *
+ * Within a method, objects reach a variable either directly (new, loads,
+ * invoke results, parameters, this) or through copies and casts from other
+ * variables. Each variable of the first kind gets a fresh label, and every
+ * variable is labeled with the set of fresh labels that reach it along
+ * copies and casts (hash-based value numbering with unions, HU). Variables
+ * with the same non-empty label set point to the same objects under every
+ * context, so they share one node of the pointer flow graph.
+ *
+ * Methods are labeled on first use. Only application methods are
+ * substituted, as statements of other methods are not analyzed.
+ */
+public class VarSubstitution {
+
+    // method -> variable -> representative, for substituted variables only
+    private final Map<JMethod, Map<Var, Var>> reps = new HashMap<>();
+
+    /** Variables substituted by each representative, including itself */
+    private final Map<Var, List<Var>> members = new HashMap<>();
+
+    /**
+     * @return the representative of var, or var itself if it is not substituted
+     */
+    public Var getRep(Var var) {
+        return reps.computeIfAbsent(var.getMethod(), this::label)
+                .getOrDefault(var, var);
+    }
+
+    /**
+     * @return the variables substituted by rep, including rep itself
+     */
+    public List<Var> getMembers(Var rep) {
+        return members.getOrDefault(rep, List.of(rep));
+    }
+
+    /** Labels the variables of a method, and picks a representative per label set */
+    private Map<Var, Var> label(JMethod method) {
+        Map<Var, Var> methodReps = new HashMap<>();
+        if (!method.isApplication() || method.isAbstract() || method.isNative()) {
+            return methodReps;
+        }
+        IR ir = method.getIR();
+        if (ir == null) {
+            return methodReps;
+        }
+        // copy/cast edges rhs -> lhs, and variables that receive objects directly
+        SimpleGraph<Var> copies = new SimpleGraph<>();
+        Set<Var> direct = new HashSet<>(ir.getParams());
+        if (ir.getThis() != null) {
+            direct.add(ir.getThis());
+        }
+        for (Var var : ir.getVars()) {
+            copies.addNode(var);
+        }
+        for (Stmt stmt : ir.getStmts()) {
+            if (stmt instanceof Copy copyStmt) {
+                copies.addEdge(copyStmt.getRValue(), copyStmt.getLValue());
+            } else if (stmt instanceof Cast castStmt) {
+                copies.addEdge(castStmt.getRValue().getValue(), castStmt.getLValue());
+            } else {
+                stmt.getDef().ifPresent(def -> {
+                    if (def instanceof Var var) {
+                        direct.add(var);
+                    }
+                });
+            }
+        }
+        // Tarjan's algorithm lists components in reverse topological order
+        List<List<Var>> components = new SCC<>(copies).getComponents();
+        Map<Var, Set<Integer>> labels = new HashMap<>();
+        Map<Set<Integer>, Var> labelReps = new HashMap<>();
+        int freshLabel = 0;
+        for (int i = components.size() - 1; i >= 0; --i) {
+            List<Var> component = components.get(i);
+            Set<Integer> label = new HashSet<>();
+            for (Var var : component) {
+                if (direct.contains(var)) {
+                    label.add(freshLabel++);
+                }
+                for (Var pred : copies.getPredsOf(var)) {
+                    Set<Integer> predLabel = labels.get(pred);
+                    if (predLabel != null) { // null for preds in this component
+                        label.addAll(predLabel);
+                    }
+                }
+            }
+            for (Var var : component) {
+                labels.put(var, label);
+            }
+            if (label.isEmpty()) {
+                // never points to any object
+                continue;
+            }
+            Var rep = labelReps.putIfAbsent(label, component.get(0));
+            if (rep == null) {
+                rep = component.get(0);
+            }
+            for (Var var : component) {
+                if (var != rep) {
+                    methodReps.put(var, rep);
+                    members.computeIfAbsent(rep, k -> new ArrayList<>(List.of(k)))
+                            .add(var);
+                }
+            }
+        }
+        return methodReps;
+    }
+}
@@ -0,0 +1,77 @@
+package pku;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Queue;
+
+import pascal.taie.analysis.graph.callgraph.Edge;
+import pascal.taie.analysis.pta.core.cs.element.CSCallSite;
+import pascal.taie.analysis.pta.core.cs.element.CSMethod;
+
+/**
+ * Global work list of the pointer flow graph solver.
+ * Pending objects of the same pointer are merged into one entry,
+ * and call edges are processed before pointer entries.
+ */
+class WorkList {
+
+    private final Map<Pointer, PointsToSet> entries = new LinkedHashMap<>();
+
+    private final Queue<Edge<CSCallSite, CSMethod>> callEdges = new ArrayDeque<>();
+
+    void addEntry(Pointer pointer, PointsToSet pts) {
+        PointsToSet set = entries.get(pointer);
+        if (set != null) {
+            set.addAll(pts);
+        } else {
+            entries.put(pointer, pts.copy());
+        }
+    }
+
+    void addEntry(Edge<CSCallSite, CSMethod> edge) {
+        callEdges.add(edge);
+    }
+
+    Entry pollEntry() {
+        if (!callEdges.isEmpty()) {
+            return new CallEdgeEntry(callEdges.poll());
+        }
+        Iterator<Map.Entry<Pointer, PointsToSet>> it = entries.entrySet().iterator();
+        if (!it.hasNext()) {
+            throw new NoSuchElementException();
+        }
+        Map.Entry<Pointer, PointsToSet> e = it.next();
+        it.remove();
+        return new PointerEntry(e.getKey(), e.getValue());
+    }
+
+    boolean hasCallEdges() {
+        return !callEdges.isEmpty();
+    }
+
+    /**
+     * Removes all pending pointer entries.
+     * @return the pending objects of each pointer, in the order they were added
+     */
+    Map<Pointer, PointsToSet> pollPointerEntries() {
+        Map<Pointer, PointsToSet> polled = new LinkedHashMap<>(entries);
+        entries.clear();
+        return polled;
+    }
+
+    boolean isEmpty() {
+        return entries.isEmpty() && callEdges.isEmpty();
+    }
+
+    interface Entry {
+    }
+
+    record PointerEntry(Pointer pointer, PointsToSet pts) implements Entry {
+    }
+
+    record CallEdgeEntry(Edge<CSCallSite, CSMethod> edge) implements Entry {
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import pascal.taie.analysis.Tests;
+import pascal.taie.analysis.pta.core.solver.MergedPointerCounter;
+import pascal.taie.util.MultiStringsSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests that cycle elimination does not change the results of pointer
+ * analysis, by comparing them with the expected results of other tests,
+ * and that it merges the pointers of a cycle.
+ */
+public class CycleEliminationTest {
+
+    private static final String COUNTER =
+            "plugins:[" + MergedPointerCounter.class.getName() + "]";
+
+    /**
+     * In Cycle, b1 and b2 flow into each other through the field b of
+     * both objects of A, so these pointers form a cycle.
+     */
+    @Test
+    void testMerge() {
+        Tests.testPTA(BasicTest.DIR, "Cycle", "cycle-elimination:true;" + COUNTER);
+        assertTrue(MergedPointerCounter.getMergedPointers() > 0,
+                "no pointer is merged on the cycle of Cycle");
+        Tests.testPTA(BasicTest.DIR, "Cycle", "cycle-elimination:false;" + COUNTER);
+        assertEquals(0, MergedPointerCounter.getMergedPointers());
+    }
+
+    @ParameterizedTest
+    @MultiStringsSource({"Cycle", "cycle-elimination:true"})
+    @MultiStringsSource({"LinkedQueue", "cycle-elimination:true"})
+    @MultiStringsSource({"RedBlackBST", "cycle-elimination:true"})
+    @MultiStringsSource({"Cycle", "cycle-elimination:true;work-list-policy:topo"})
+    void testBasic(String mainClass, String opts) {
+        Tests.testPTA(BasicTest.DIR, mainClass, opts);
+    }
+
+    @ParameterizedTest
+    @MultiStringsSource({"TwoObject", "cs:2-obj;cycle-elimination:true"})
+    void testContextSensitivity(String mainClass, String opts) {
+        Tests.testPTA(ContextSensitivityTest.DIR, mainClass, opts);
+    }
+
+    @ParameterizedTest
+    @MultiStringsSource({"CycleTaint", "cycle-elimination:true;" + TaintTest.TAINT_CONFIG})
+    @MultiStringsSource({"BackPropagation", "cycle-elimination:true;" + TaintTest.TAINT_CONFIG})
+    void testTaint(String mainClass, String opts) {
+        Tests.testPTA(TaintTest.DIR, mainClass, opts);
+    }
+}
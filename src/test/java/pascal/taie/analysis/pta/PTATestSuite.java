@@ -31,11 +31,14 @@ import pascal.taie.analysis.pta.core.cs.context.ContextTest;
         ContextTest.class,
         BasicTestFull.class,
         ContextSensitivityTestFull.class,
+        CycleEliminationTest.class,
         ExceptionTest.class,
         LambdaTest.class,
         Java9StringConcatTest.class,
+        ParallelSolverTest.class,
         ReflectionTest.class,
         TaintTest.class,
+        WorkListPolicyTest.class,
         WorldCacheTest.class,
 })
 public class PTATestSuite {
@@ -0,0 +1,71 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import pascal.taie.analysis.Tests;
+import pascal.taie.util.MultiStringsSource;
+
+/**
+ * Tests that the parallel solver gives the same results as the default solver,
+ * by comparing its results with the expected results of other tests.
+ */
+public class ParallelSolverTest {
+
+    private static final String THREADS = "solver-threads:4";
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "New",
+            "StoreLoad",
+            "Call",
+            "InstanceField",
+            "LinkedQueue",
+            "RedBlackBST",
+            "Dispatch",
+            "Recursion",
+            "Cycle",
+            "ComplexAssign",
+    })
+    void testBasic(String mainClass) {
+        Tests.testPTA(BasicTest.DIR, mainClass, THREADS);
+    }
+
+    @ParameterizedTest
+    @MultiStringsSource({"OneObject", "cs:1-obj"})
+    @MultiStringsSource({"TwoCall", "cs:2-call"})
+    @MultiStringsSource({"TwoType", "cs:2-type"})
+    void testContextSensitivity(String mainClass, String opts) {
+        Tests.testPTA(ContextSensitivityTest.DIR, mainClass, THREADS + ";" + opts);
+    }
+
+    @ParameterizedTest
+    @MultiStringsSource({"ArrayTaint", TaintTest.TAINT_CONFIG})
+    @MultiStringsSource({"CycleTaint", TaintTest.TAINT_CONFIG})
+    @MultiStringsSource({"TaintInList", "cs:2-obj;" + TaintTest.TAINT_CONFIG})
+    @MultiStringsSource({"BackPropagation", TaintTest.TAINT_CONFIG})
+    void testTaint(String mainClass, String opts) {
+        Tests.testPTA(TaintTest.DIR, mainClass, THREADS + ";" + opts);
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import pascal.taie.analysis.Tests;
+import pascal.taie.util.MultiStringsSource;
+
+/**
+ * Tests that the results of pointer analysis do not depend on the
+ * work-list policy, by comparing them with the expected results of
+ * other tests.
+ */
+public class WorkListPolicyTest {
+
+    @ParameterizedTest
+    @MultiStringsSource({"LinkedQueue", "work-list-policy:lrf"})
+    @MultiStringsSource({"LinkedQueue", "work-list-policy:topo"})
+    @MultiStringsSource({"LinkedQueue", "work-list-policy:delta"})
+    @MultiStringsSource({"RedBlackBST", "work-list-policy:lrf"})
+    @MultiStringsSource({"RedBlackBST", "work-list-policy:topo"})
+    @MultiStringsSource({"RedBlackBST", "work-list-policy:delta"})
+    @MultiStringsSource({"Cycle", "work-list-policy:lrf"})
+    @MultiStringsSource({"Cycle", "work-list-policy:topo"})
+    @MultiStringsSource({"Cycle", "work-list-policy:delta"})
+    void testBasic(String mainClass, String opts) {
+        Tests.testPTA(BasicTest.DIR, mainClass, opts);
+    }
+
+    @ParameterizedTest
+    @MultiStringsSource({"TwoObject", "cs:2-obj;work-list-policy:topo"})
+    @MultiStringsSource({"TwoType", "cs:2-type;work-list-policy:delta"})
+    void testContextSensitivity(String mainClass, String opts) {
+        Tests.testPTA(ContextSensitivityTest.DIR, mainClass, opts);
+    }
+
+    @ParameterizedTest
+    @MultiStringsSource({"CycleTaint", "work-list-policy:topo;" + TaintTest.TAINT_CONFIG})
+    @MultiStringsSource({"BackPropagation", "work-list-policy:lrf;" + TaintTest.TAINT_CONFIG})
+    void testTaint(String mainClass, String opts) {
+        Tests.testPTA(TaintTest.DIR, mainClass, opts);
+    }
+}
@@ -0,0 +1,168 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.core.cs.element;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import pascal.taie.Main;
+import pascal.taie.World;
+import pascal.taie.analysis.pta.core.cs.context.Context;
+import pascal.taie.analysis.pta.core.cs.context.TrieContext;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.language.classes.JMethod;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests that {@link ArrayBasedCSManager} keeps the elements apart that
+ * share an index of the IR, and the elements that have no index.
+ */
+public class ArrayBasedCSManagerTest {
+
+    private static JMethod method;
+
+    private static Var var;
+
+    private static Invoke invoke;
+
+    private static final TrieContext.Factory<String> FACTORY = new TrieContext.Factory<>();
+
+    private static final Context EMPTY = FACTORY.getEmptyContext();
+
+    private static final Context CTX = FACTORY.make("A");
+
+    @BeforeAll
+    public static void beforeClass() {
+        Main.buildWorld("-pp", "-cp", "src/test/resources/world",
+                "--input-classes", "AllInOne");
+        method = World.get().getClassHierarchy()
+                .getClass("AllInOne").getDeclaredMethod("<init>");
+        IR ir = method.getIR();
+        var = ir.getThis();
+        invoke = ir.invokes(false).findFirst().orElseThrow();
+    }
+
+    @Test
+    void testCSVar() {
+        CSManager manager = new ArrayBasedCSManager();
+        CSVar csVar1 = manager.getCSVar(EMPTY, var);
+        CSVar csVar2 = manager.getCSVar(CTX, var);
+        assertSame(csVar1, manager.getCSVar(EMPTY, var));
+        assertNotSame(csVar1, csVar2);
+        assertSame(var, csVar2.getVar());
+        assertEquals(CTX, csVar2.getContext());
+        assertEquals(Set.of(csVar1, csVar2), Set.copyOf(manager.getCSVarsOf(var)));
+    }
+
+    @Test
+    void testCSVarOfCollidingIndex() {
+        Var clash = new Var(method, "clash", var.getType(), var.getIndex());
+        // the variable of the IR takes the index first
+        CSManager manager = new ArrayBasedCSManager();
+        CSVar csVar = manager.getCSVar(EMPTY, var);
+        CSVar csClash = manager.getCSVar(EMPTY, clash);
+        assertNotSame(csVar, csClash);
+        assertSame(clash, csClash.getVar());
+        assertSame(csClash, manager.getCSVar(EMPTY, clash));
+        assertEquals(Set.of(csVar), Set.copyOf(manager.getCSVarsOf(var)));
+        assertEquals(Set.of(csClash), Set.copyOf(manager.getCSVarsOf(clash)));
+        // the other variable takes the index first
+        manager = new ArrayBasedCSManager();
+        csClash = manager.getCSVar(EMPTY, clash);
+        csVar = manager.getCSVar(EMPTY, var);
+        assertNotSame(csVar, csClash);
+        assertSame(var, csVar.getVar());
+        assertSame(csVar, manager.getCSVar(EMPTY, var));
+        assertEquals(Set.of(csVar), Set.copyOf(manager.getCSVarsOf(var)));
+        assertEquals(Set.of(csClash), Set.copyOf(manager.getCSVarsOf(clash)));
+    }
+
+    @Test
+    void testCSVarOfUnindexedVar() {
+        Var unindexed = new Var(method, "unindexed", var.getType(), -1);
+        CSManager manager = new ArrayBasedCSManager();
+        assertTrue(manager.getCSVarsOf(unindexed).isEmpty());
+        CSVar csVar1 = manager.getCSVar(EMPTY, unindexed);
+        CSVar csVar2 = manager.getCSVar(CTX, unindexed);
+        assertSame(csVar1, manager.getCSVar(EMPTY, unindexed));
+        assertNotSame(csVar1, csVar2);
+        assertSame(unindexed, csVar1.getVar());
+        assertEquals(Set.of(csVar1, csVar2), Set.copyOf(manager.getCSVarsOf(unindexed)));
+        assertTrue(manager.getCSVarsOf(var).isEmpty());
+        assertEquals(2, manager.getCSVars().size());
+    }
+
+    @Test
+    void testCSCallSite() {
+        CSManager manager = new ArrayBasedCSManager();
+        CSCallSite csCallSite1 = manager.getCSCallSite(EMPTY, invoke);
+        CSCallSite csCallSite2 = manager.getCSCallSite(CTX, invoke);
+        assertSame(csCallSite1, manager.getCSCallSite(EMPTY, invoke));
+        assertNotSame(csCallSite1, csCallSite2);
+        assertSame(invoke, csCallSite2.getCallSite());
+        assertEquals(CTX, csCallSite2.getContext());
+        assertSame(manager.getCSMethod(CTX, method), csCallSite2.getContainer());
+    }
+
+    @Test
+    void testCSCallSiteOfCollidingIndex() {
+        Invoke clash = new Invoke(method, invoke.getInvokeExp());
+        clash.setIndex(invoke.getIndex());
+        // the call site of the IR takes the index first
+        CSManager manager = new ArrayBasedCSManager();
+        CSCallSite csCallSite = manager.getCSCallSite(EMPTY, invoke);
+        CSCallSite csClash = manager.getCSCallSite(EMPTY, clash);
+        assertNotSame(csCallSite, csClash);
+        assertSame(clash, csClash.getCallSite());
+        assertSame(csClash, manager.getCSCallSite(EMPTY, clash));
+        assertSame(csCallSite, manager.getCSCallSite(EMPTY, invoke));
+        // the other call site takes the index first
+        manager = new ArrayBasedCSManager();
+        csClash = manager.getCSCallSite(EMPTY, clash);
+        csCallSite = manager.getCSCallSite(EMPTY, invoke);
+        assertNotSame(csCallSite, csClash);
+        assertSame(invoke, csCallSite.getCallSite());
+        assertSame(csCallSite, manager.getCSCallSite(EMPTY, invoke));
+        assertSame(csClash, manager.getCSCallSite(EMPTY, clash));
+    }
+
+    @Test
+    void testCSCallSiteOfUnindexedCallSite() {
+        Invoke unindexed = new Invoke(method, invoke.getInvokeExp());
+        assertEquals(-1, unindexed.getIndex());
+        CSManager manager = new ArrayBasedCSManager();
+        CSCallSite csCallSite1 = manager.getCSCallSite(EMPTY, unindexed);
+        CSCallSite csCallSite2 = manager.getCSCallSite(CTX, unindexed);
+        assertSame(csCallSite1, manager.getCSCallSite(EMPTY, unindexed));
+        assertNotSame(csCallSite1, csCallSite2);
+        assertSame(unindexed, csCallSite1.getCallSite());
+        assertNotSame(csCallSite1, manager.getCSCallSite(EMPTY, invoke));
+    }
+}
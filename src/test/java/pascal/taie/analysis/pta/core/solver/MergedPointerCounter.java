@@ -0,0 +1,61 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.core.solver;
+
+import pascal.taie.analysis.pta.plugin.Plugin;
+
+/**
+ * Counts the pointers that cycle elimination has merged into another
+ * pointer when the analysis finishes, for {@code CycleEliminationTest}.
+ */
+public class MergedPointerCounter implements Plugin {
+
+    private static long mergedPointers;
+
+    private DefaultSolver solver;
+
+    @Override
+    public void setSolver(Solver solver) {
+        this.solver = (DefaultSolver) solver;
+    }
+
+    @Override
+    public void onStart() {
+        mergedPointers = 0;
+    }
+
+    @Override
+    public void onFinish() {
+        PointerFlowGraph pfg = solver.pointerFlowGraph;
+        mergedPointers = pfg.pointers()
+                .filter(p -> pfg.getRepresentative(p) != p)
+                .count();
+    }
+
+    /**
+     * @return number of merged pointers in the last analysis.
+     */
+    public static long getMergedPointers() {
+        return mergedPointers;
+    }
+}
@@ -30,6 +30,7 @@ import org.junit.platform.suite.api.Suite;
         GenericBitSetTest.class,
         ArraySetTest.class,
         ArrayMapTest.class,
+        HybridBitSetTest.class,
         HybridHashMapTest.class,
         HybridHashSetTest.class,
         IndexMapTest.class,
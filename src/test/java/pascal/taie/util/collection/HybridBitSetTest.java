@@ -0,0 +1,74 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.util.collection;
+
+import org.junit.jupiter.api.Test;
+import pascal.taie.util.Indexer;
+import pascal.taie.util.SimpleIndexer;
+
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class HybridBitSetTest {
+
+    private final Indexer<Integer> indexer = new SimpleIndexer<>();
+
+    private HybridBitSet<Integer> hybridSet(int from, int to) {
+        HybridBitSet<Integer> set = new HybridBitSet<>(indexer, true);
+        IntStream.range(from, to).forEach(set::add);
+        return set;
+    }
+
+    private IndexerBitSet<Integer> evens(int to) {
+        IndexerBitSet<Integer> set = new IndexerBitSet<>(indexer, true);
+        IntStream.range(0, to).filter(i -> i % 2 == 0).forEach(set::add);
+        return set;
+    }
+
+    @Test
+    void testRetainAllBitSet() {
+        HybridBitSet<Integer> small = hybridSet(0, 3);
+        assertTrue(small.retainAll(evens(1000)));
+        assertEquals(Set.of(0, 2), small);
+        HybridBitSet<Integer> large = hybridSet(0, 1000);
+        assertTrue(large.retainAll(evens(100)));
+        assertEquals(50, large.size());
+        assertFalse(large.retainAll(evens(100)));
+    }
+
+    @Test
+    void testRemoveAllBitSet() {
+        HybridBitSet<Integer> small = hybridSet(0, 3);
+        assertTrue(small.removeAll(evens(1000)));
+        assertEquals(Set.of(1), small);
+        HybridBitSet<Integer> large = hybridSet(0, 1000);
+        assertTrue(large.removeAll(evens(1000)));
+        assertEquals(500, large.size());
+        assertFalse(large.contains(998));
+        assertFalse(large.removeAll(evens(1000)));
+    }
+}
@@ -0,0 +1,64 @@
+package pku;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import pascal.taie.Main;
+import pascal.taie.World;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tests that the solver modes of pku-pta agree on the test programs
+ * in src/test/pku: the iterative and demand solvers and the parallel
+ * pfg solver must give the same result as the sequential pfg solver,
+ * and a context-sensitive analysis must not depend on the threads.
+ */
+public class SolverModesTest {
+
+    private static final String CLASS_PATH = "src/test/pku";
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "ArrayAnyIndexTest",
+            "ArrayCovarianceTest",
+            "ArrayTest",
+            "Branch",
+            "CastTest",
+            "CollectionsTest",
+            "ConstructorTest",
+            "ControlFlowTest",
+            "ExceptionTest",
+            "Field1",
+            "Field2",
+            "Hello",
+            "InheritanceTest",
+            "InterfaceTest",
+            "Invocation",
+            "Loop",
+            "MultiDimArrayTest",
+            "NativeMethodTest",
+            "NestedClassTest",
+            "PrimitiveWrapperTest",
+            "RecursionTest",
+            "StaticFieldTest",
+            "StringTest",
+    })
+    void testModes(String mainClass) {
+        PointerAnalysisResult expected = analyze(mainClass, "solver:pfg");
+        assertEquals(expected, analyze(mainClass, "solver:iterative"), "iterative");
+        assertEquals(expected, analyze(mainClass, "solver:demand"), "demand");
+        assertEquals(expected, analyze(mainClass, "solver:pfg;threads:4"), "threads:4");
+        assertEquals(analyze(mainClass, "cs:1-obj"),
+                analyze(mainClass, "cs:1-obj;threads:4"), "cs:1-obj;threads:4");
+    }
+
+    /**
+     * Runs pku-pta with the given options on the main class of a test program.
+     */
+    private static PointerAnalysisResult analyze(String mainClass, String opts) {
+        Main.main("-pp", "-cp", CLASS_PATH, "-m", "test." + mainClass,
+                "-a", PointerAnalysis.ID + "=" + opts);
+        return World.get().getResult(PointerAnalysis.ID);
+    }
+}
@@ -0,0 +1,48 @@
+package test;
+
+import benchmark.internal.Benchmark;
+import benchmark.objects.A;
+
+public class ArrayAnyIndexTest {
+    public static void main(String[] args) {
+        A[] arr = new A[4];
+
+        Benchmark.alloc(1);
+        A a1 = new A();
+        Benchmark.alloc(2);
+        A a2 = new A();
+
+        arr[0] = a1;
+        arr[1] = a2;
+
+        // Constant slot arr[0] is resolved first
+        A x = arr[0];
+        Benchmark.test(1, x);
+
+        // The unknown index must still read the objects in arr[0] and arr[1]
+        int i = args.length;
+        A y = arr[i];
+        Benchmark.test(2, y);
+
+        A[] brr = new A[2];
+        Benchmark.alloc(3);
+        A a3 = new A();
+        brr[1] = a3;
+
+        // Both slots are reached in one query, the constant one first
+        A z = brr[1];
+        if (args.length > 1) {
+            z = brr[i];
+        }
+        Benchmark.test(3, z);
+    }
+}
+/*
+Expected Answer:
+  1 : 1
+  2 : 1 2
+  3 : 3
+
+Reason: arr[i] reads every slot of arr, including arr[0], which
+was resolved before arr[i] was.
+*/
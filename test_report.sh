@@ -16,17 +16,18 @@ descriptions=(
 echo "测试进度:"
 echo "---------"
 
+# 在同一个 World 中批量运行所有测试, 结果写入 result-<Class>.txt
+rm -f result-*.txt
+./gradlew runBatch --args="src/test/pku ${tests[*]/#/test.}" -x test --quiet > /dev/null 2>&1
+
 for i in "${!tests[@]}"; do
     test=${tests[i]}
     desc=${descriptions[i]}
     
     echo -n "测试点 $((i+1)): $desc ... "
     
-    # 运行测试
-    ./gradlew run --args="-a pku-pta -cp src/test/pku -m test.$test" -x test --quiet > /dev/null 2>&1
-    
-    if [ -f "result.txt" ]; then
-        result=$(cat result.txt)
+    if [ -f "result-$test.txt" ]; then
+        result=$(cat "result-$test.txt")
         if [ -n "$result" ]; then
             echo "   输出: $result"
         else